@@ -0,0 +1,164 @@
+package Graph;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import Graph.GraphWeighted.GraphWE;
+
+/**
+ * A* search for point to point queries on a frozen weighted graph: Dijkstra ordering the queue by
+ * distance plus a lower bound of the remaining distance given by a {@link Heuristic}, so the
+ * search is pulled towards the destination and settles far fewer nodes. With
+ * {@link Landmarks} (ALT) the bound comes from precomputed distances to a few landmarks and works
+ * on any graph. Only non-negative weights.
+ *
+ * The graph and the heuristic are read-only, and the state of a search lives in a {@link Query},
+ * so several threads can answer queries at the same time with one Query each.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class AStar {
+  static final int INF = ShortestPaths.INF;
+
+  /**
+   * Lower bound of the distance from node to dest. It must never overestimate it; if it is also
+   * consistent (h(u) <= w(u, v) + h(v) for every arc) each node is settled once, otherwise nodes
+   * are reopened and the result is still exact. Return INF if dest is known to be unreachable.
+   */
+  interface Heuristic {
+    int estimate(int node, int dest);
+  }
+
+  final GraphWeightedCSR graph;
+  final Heuristic heuristic;
+
+  public AStar(GraphWeightedCSR graph, Heuristic heuristic) {
+    this.graph = graph;
+    this.heuristic = heuristic;
+  }
+
+  /**
+   * Freezes the graph first
+   */
+  public AStar(GraphWE graph, Heuristic heuristic) {
+    this(new GraphWeightedCSR(graph), heuristic);
+  }
+
+  public Query newQuery() {
+    return new Query();
+  }
+
+  /**
+   * Distance from source to dest, INF if unreachable. Allocates a new Query: reuse one with
+   * newQuery() when answering many of them.
+   */
+  public int distance(int source, int dest) {
+    return newQuery().search(source, dest);
+  }
+
+  /**
+   * State of the search of one thread. Only the nodes touched by the previous query are reset,
+   * so a query costs time proportional to the nodes it explores, not O(|V|).
+   */
+  class Query {
+    private final int[] distTo;
+    private final int[] nodeTo;
+    private final int[] estimate; // Heuristic of each touched node, computed once per query
+    private final IndexedDHeap queue;
+    private int[] touched;
+    private int numTouched = 0;
+    private int settled = 0;
+    private int dest;
+
+    private Query() {
+      int n = graph.getNumVertices();
+      distTo = new int[n];
+      nodeTo = new int[n];
+      estimate = new int[n];
+      Arrays.fill(distTo, INF);
+      queue = new IndexedDHeap(n);
+      touched = new int[16];
+    }
+
+    /**
+     * @return Distance from source to dest, INF if unreachable
+     * @time O(|E| log |V|) in the worst case
+     */
+    public int search(int source, int dest) {
+      for (int i = 0; i < numTouched; i++) {
+        distTo[touched[i]] = INF;
+      }
+      numTouched = 0;
+      settled = 0;
+      this.dest = dest;
+      int[] offsets = graph.offsets;
+      int[] to = graph.to;
+      int[] weight = graph.weight;
+
+      touch(source);
+      distTo[source] = 0;
+      nodeTo[source] = -1;
+      if (estimate[source] < INF) {
+        queue.add(source, estimate[source]);
+      }
+
+      while (!queue.isEmpty()) {
+        int cur = queue.poll();
+        settled++;
+        if (cur == dest) {
+          break;
+        }
+        for (int arc = offsets[cur]; arc < offsets[cur + 1]; arc++) {
+          int next = to[arc];
+          int newDist = distTo[cur] + weight[arc];
+          if (newDist >= distTo[next]) {
+            continue;
+          }
+          if (distTo[next] == INF) {
+            touch(next);
+          }
+          distTo[next] = newDist;
+          nodeTo[next] = cur;
+          if (estimate[next] < INF) { // Otherwise it can't reach dest
+            queue.addOrDecrease(next, (long) newDist + estimate[next]);
+          }
+        }
+      }
+      queue.clear();
+      return distTo[dest];
+    }
+
+    /**
+     * Marks the node to be reset by the next query and computes its heuristic
+     */
+    private void touch(int node) {
+      if (numTouched == touched.length) {
+        touched = Arrays.copyOf(touched, 2 * numTouched);
+      }
+      touched[numTouched++] = node;
+      estimate[node] = heuristic.estimate(node, dest);
+    }
+
+    /**
+     * Nodes settled in the last query
+     */
+    public int getSettled() {
+      return settled;
+    }
+
+    /**
+     * Nodes of the shortest path found by the last search, or null if dest is unreachable
+     */
+    public ArrayDeque<Integer> path() {
+      if (distTo[dest] == INF) {
+        return null;
+      }
+      ArrayDeque<Integer> path = new ArrayDeque<Integer>();
+      for (int node = dest; node != -1; node = nodeTo[node]) {
+        path.addFirst(node);
+      }
+      return path;
+    }
+  }
+
+}
@@ -0,0 +1,108 @@
+package Graph;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Shortest path trees from many sources (distance matrices, gravity models, centralities) run
+ * in parallel, one Dijkstra per source on a shared read-only graph. Each search takes its tree
+ * and heap from a {@link ShortestPathTree.Pool}, so every thread keeps reusing the same arrays
+ * and nothing of size |V| is allocated per source once all the threads have started. The sources
+ * are handed out one at a time, so a few slow searches don't leave the other threads idle.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class BatchShortestPaths {
+
+  /**
+   * Receives each tree as soon as it is computed. It is called from several threads at the same
+   * time, and the tree is given back to the pool when accept() returns, so copy what is needed.
+   */
+  interface TreeConsumer {
+    void accept(int index, ShortestPathTree tree);
+  }
+
+  /**
+   * Runs a Dijkstra from every sources[index] and streams the trees to the consumer. The first
+   * exception thrown by a search or by the consumer stops the other threads and is rethrown here.
+   *
+   * @time O(k |E| log |V|) split among the threads, for k sources
+   */
+  static void dijkstra(final GraphWeightedCSR graph, final int[] sources, int numThreads,
+      final TreeConsumer consumer) throws InterruptedException {
+    final ShortestPathTree.Pool pool = new ShortestPathTree.Pool(graph.getNumVertices());
+    final AtomicInteger nextSource = new AtomicInteger();
+    final AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+
+    Thread[] threads = new Thread[Math.max(1, Math.min(numThreads, sources.length))];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(new Runnable() {
+        public void run() {
+          for (int index; failure.get() == null
+              && (index = nextSource.getAndIncrement()) < sources.length;) {
+            ShortestPathTree tree = null;
+            try {
+              tree = ShortestPaths.dijkstra(graph, sources[index], -1, pool);
+              consumer.accept(index, tree);
+            } catch (RuntimeException e) {
+              failure.compareAndSet(null, e);
+            } finally {
+              if (tree != null) {
+                tree.release();
+              }
+            }
+          }
+        }
+      }, "BatchShortestPaths " + t);
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+  }
+
+  /**
+   * Same as dijkstra(graph, sources, numThreads, consumer) on all the processors
+   */
+  static void dijkstra(GraphWeightedCSR graph, int[] sources, TreeConsumer consumer)
+      throws InterruptedException {
+    dijkstra(graph, sources, Runtime.getRuntime().availableProcessors(), consumer);
+  }
+
+  /**
+   * Fills distances[index] with the distances from sources[index] to every node (INF if
+   * unreachable). The rows are preallocated by the caller, so a matrix can be refilled without
+   * allocating.
+   *
+   * @param distances
+   *          int[sources.length][|V|]
+   * @time O(k |E| log |V|) split among the threads, for k sources
+   */
+  static void distanceMatrix(GraphWeightedCSR graph, int[] sources, final int[][] distances,
+      int numThreads) throws InterruptedException {
+    if (distances.length < sources.length) {
+      throw new IllegalArgumentException(distances.length + " rows for " + sources.length
+          + " sources");
+    }
+    final int n = graph.getNumVertices();
+    dijkstra(graph, sources, numThreads, new TreeConsumer() {
+      public void accept(int index, ShortestPathTree tree) {
+        System.arraycopy(tree.distTo, 0, distances[index], 0, n);
+      }
+    });
+  }
+
+  /**
+   * New int[sources.length][|V|] matrix filled on all the processors
+   */
+  static int[][] distanceMatrix(GraphWeightedCSR graph, int[] sources)
+      throws InterruptedException {
+    int[][] distances = new int[sources.length][graph.getNumVertices()];
+    distanceMatrix(graph, sources, distances, Runtime.getRuntime().availableProcessors());
+    return distances;
+  }
+
+}
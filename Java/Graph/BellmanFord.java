@@ -0,0 +1,399 @@
+package Graph;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bellman-Ford on frozen weighted graphs that either gives the distances or finds a negative
+ * cycle, instead of stopping after |V| - 1 rounds like ShortestPaths.bellmanFord(). The cycle is
+ * taken from the graph of parent pointers (nodeTo), which can only have negative cycles, so it is
+ * found as soon as one closes instead of after |V| rounds.
+ *
+ * run() is the queue based version (SPFA) with the Small Label First and Large Label Last
+ * heuristics on a primitive ring buffer, and runParallel() relaxes each round of changed nodes on
+ * a ForkJoinPool. With source -1 both start from a virtual node joined to every node by a 0 arc,
+ * which finds any negative cycle and gives a potential for {@link Johnson}.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class BellmanFord {
+  static final int INF = ShortestPaths.INF;
+  static final int GRAIN = 512; // Nodes per task in runParallel()
+
+  /**
+   * Distances and tree from the source, or a negative cycle reachable from it
+   */
+  static class Result {
+    final int[] distTo;
+    final int[] arcTo; // -1 if none
+    final int[] nodeTo; // -1 if none
+    final int[] negativeCycle; // null if there is none
+
+    Result(int[] distTo, int[] arcTo, int[] nodeTo, int[] negativeCycle) {
+      this.distTo = distTo;
+      this.arcTo = arcTo;
+      this.nodeTo = nodeTo;
+      this.negativeCycle = negativeCycle;
+    }
+
+    public boolean hasNegativeCycle() {
+      return negativeCycle != null;
+    }
+
+    /**
+     * Nodes of the cycle in the order of its arcs (the last one goes back to the first), or null
+     */
+    public int[] getNegativeCycle() {
+      return negativeCycle == null ? null : negativeCycle.clone();
+    }
+
+    /**
+     * @throws IllegalStateException
+     *           if there is a negative cycle, as then the distances are meaningless
+     */
+    public int distanceTo(int node) {
+      checkNoCycle();
+      return distTo[node];
+    }
+
+    public int arcTo(int node) {
+      checkNoCycle();
+      return arcTo[node];
+    }
+
+    /**
+     * Nodes of the path from the source, or null if unreachable
+     */
+    public ArrayDeque<Integer> pathTo(int node) {
+      checkNoCycle();
+      if (distTo[node] == INF) {
+        return null;
+      }
+      ArrayDeque<Integer> path = new ArrayDeque<Integer>();
+      for (int cur = node; cur != -1; cur = nodeTo[cur]) {
+        path.addFirst(cur);
+      }
+      return path;
+    }
+
+    private void checkNoCycle() {
+      if (negativeCycle != null) {
+        throw new IllegalStateException("Negative cycle through node " + negativeCycle[0]);
+      }
+    }
+  }
+
+  /**
+   * SPFA with SLF (a node whose distance is lower than the one of the first node is added at the
+   * front) and LLL (nodes above the average distance of the queue are moved to the back before
+   * being taken). Every node is at most once in the queue, so it is a ring buffer of |V| + 1.
+   * When a node has been reached through |V| arcs the parent graph is checked for a cycle, at
+   * most once every |V| relaxations so the checks are amortized.
+   *
+   * @param source
+   *          -1 for a virtual node joined to every node
+   * @time O(|V| * |E|) but typical case is O(|V| + |E|)
+   */
+  static Result run(GraphWeightedCSR graph, int source) {
+    int n = graph.getNumVertices();
+    int[] offsets = graph.offsets;
+    int[] to = graph.to;
+    int[] weight = graph.weight;
+    int[] distTo = new int[n];
+    int[] arcTo = new int[n];
+    int[] nodeTo = new int[n];
+    int[] length = new int[n]; // Arcs of the path that gave the current distance
+    boolean[] inQueue = new boolean[n];
+    Arrays.fill(arcTo, -1);
+    Arrays.fill(nodeTo, -1);
+
+    int capacity = n + 1;
+    int[] queue = new int[capacity];
+    int head = 0, tail = 0, size = 0;
+    long sum = 0; // Of the distances of the nodes in the queue
+    if (source == -1) {
+      for (int node = 0; node < n; node++) {
+        queue[tail++] = node;
+        inQueue[node] = true;
+      }
+      size = n;
+    } else {
+      Arrays.fill(distTo, INF);
+      distTo[source] = 0;
+      queue[tail++] = source;
+      inQueue[source] = true;
+      size = 1;
+    }
+    long relaxations = 0;
+    long nextCheck = n;
+
+    while (size > 0) {
+      while ((long) distTo[queue[head]] * size > sum) { // LLL, some node is at most the average
+        queue[tail] = queue[head];
+        head = head + 1 == capacity ? 0 : head + 1;
+        tail = tail + 1 == capacity ? 0 : tail + 1;
+      }
+      int cur = queue[head];
+      head = head + 1 == capacity ? 0 : head + 1;
+      size--;
+      sum -= distTo[cur];
+      inQueue[cur] = false;
+
+      for (int arc = offsets[cur]; arc < offsets[cur + 1]; arc++) {
+        int next = to[arc];
+        int newDist = distTo[cur] + weight[arc];
+        if (newDist >= distTo[next]) {
+          continue;
+        }
+        if (inQueue[next]) {
+          sum -= distTo[next] - newDist;
+        }
+        distTo[next] = newDist;
+        arcTo[next] = arc;
+        nodeTo[next] = cur;
+        length[next] = length[cur] + 1;
+        relaxations++;
+        if (length[next] >= n && relaxations >= nextCheck) {
+          int[] cycle = findCycle(nodeTo);
+          if (cycle != null) {
+            return new Result(distTo, arcTo, nodeTo, cycle);
+          }
+          nextCheck = relaxations + n;
+        }
+        if (inQueue[next]) {
+          continue;
+        }
+        inQueue[next] = true;
+        if (size > 0 && newDist < distTo[queue[head]]) { // SLF
+          head = head == 0 ? capacity - 1 : head - 1;
+          queue[head] = next;
+        } else {
+          queue[tail] = next;
+          tail = tail + 1 == capacity ? 0 : tail + 1;
+        }
+        size++;
+        sum += newDist;
+      }
+    }
+    return new Result(distTo, arcTo, nodeTo, null);
+  }
+
+  /**
+   * Round synchronous Bellman-Ford: each round relaxes in parallel the arcs of the nodes improved
+   * in the previous one. The distance and the arc reaching each node are packed in a long of an
+   * AtomicLongArray and lowered with compareAndSet, so the threads never lose an update. From
+   * round |V| on, rounds that still improve something check the parent graph for a cycle.
+   *
+   * @param source
+   *          -1 for a virtual node joined to every node
+   * @time O(|V| * |E|) work but typical case is O(|V| + |E|), split among the threads of the pool
+   */
+  static Result runParallel(GraphWeightedCSR graph, int source, ForkJoinPool pool) {
+    int n = graph.getNumVertices();
+    Rounds rounds = new Rounds(graph, source);
+    int[] nodeTo = new int[n];
+    for (int round = 1; rounds.frontierSize > 0; round++) {
+      rounds.relax(pool);
+      rounds.merge(round);
+      if (round >= n && rounds.frontierSize > 0) {
+        rounds.unpack(null, nodeTo);
+        int[] cycle = findCycle(nodeTo);
+        if (cycle != null) {
+          int[] distTo = new int[n];
+          int[] arcTo = rounds.unpack(distTo, nodeTo);
+          return new Result(distTo, arcTo, nodeTo, cycle);
+        }
+      }
+    }
+    int[] distTo = new int[n];
+    int[] arcTo = rounds.unpack(distTo, nodeTo);
+    return new Result(distTo, arcTo, nodeTo, null);
+  }
+
+  /**
+   * State of runParallel(): packed distances, the nodes to relax in the next round and the nodes
+   * improved by each task
+   */
+  private static class Rounds {
+    final GraphWeightedCSR graph;
+    final AtomicLongArray best; // distance << 32 | arc, compared as signed
+    final int[] queuedIn; // Last round the node was added to the frontier
+    int[] frontier;
+    int[] next; // Swapped with frontier after each round
+    int frontierSize = 0;
+    int[][] improved = new int[0][];
+    int[] improvedSize = new int[0];
+
+    Rounds(GraphWeightedCSR graph, int source) {
+      int n = graph.getNumVertices();
+      this.graph = graph;
+      best = new AtomicLongArray(n);
+      queuedIn = new int[n];
+      frontier = new int[Math.max(16, source == -1 ? n : 16)];
+      next = new int[frontier.length];
+      for (int node = 0; node < n; node++) {
+        best.set(node, pack(source == -1 || node == source ? 0 : INF, -1));
+        if (source == -1) {
+          frontier[frontierSize++] = node;
+        }
+      }
+      if (source != -1) {
+        frontier[frontierSize++] = source;
+      }
+    }
+
+    static long pack(int dist, int arc) {
+      return (long) dist << 32 | arc & 0xFFFFFFFFL;
+    }
+
+    void relax(ForkJoinPool pool) {
+      int tasks = (frontierSize + GRAIN - 1) / GRAIN;
+      if (improved.length < tasks) {
+        improved = Arrays.copyOf(improved, Math.max(tasks, 2 * improved.length));
+        improvedSize = Arrays.copyOf(improvedSize, improved.length);
+      }
+      for (int task = 0; task < tasks; task++) {
+        if (improved[task] == null) {
+          improved[task] = new int[GRAIN];
+        }
+      }
+      Relax task = new Relax(this, 0, frontierSize);
+      if (tasks == 1) {
+        task.compute(); // Not worth waking up the pool
+      } else {
+        pool.invoke(task);
+      }
+    }
+
+    /**
+     * Next frontier: the nodes improved by any task in this round, once each
+     */
+    void merge(int round) {
+      int tasks = (frontierSize + GRAIN - 1) / GRAIN;
+      int size = 0;
+      for (int task = 0; task < tasks; task++) {
+        for (int i = 0; i < improvedSize[task]; i++) {
+          int node = improved[task][i];
+          if (queuedIn[node] != round) {
+            queuedIn[node] = round;
+            if (size == next.length) {
+              next = Arrays.copyOf(next, 2 * size);
+            }
+            next[size++] = node;
+          }
+        }
+      }
+      int[] aux = frontier;
+      frontier = next;
+      next = aux;
+      frontierSize = size;
+    }
+
+    /**
+     * Fills distTo (if not null) and nodeTo, and returns arcTo
+     */
+    int[] unpack(int[] distTo, int[] nodeTo) {
+      int n = nodeTo.length;
+      int[] arcTo = new int[n];
+      for (int node = 0; node < n; node++) {
+        long packed = best.get(node);
+        arcTo[node] = (int) packed;
+        nodeTo[node] = arcTo[node] == -1 ? -1 : graph.from(arcTo[node]);
+        if (distTo != null) {
+          distTo[node] = (int) (packed >> 32);
+        }
+      }
+      return arcTo;
+    }
+  }
+
+  /**
+   * Range of the frontier split in halves down to GRAIN nodes. The leaves start at a multiple of
+   * GRAIN, which identifies their slot in improved.
+   */
+  private static class Relax extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    final Rounds rounds;
+    final int low, high;
+
+    Relax(Rounds rounds, int low, int high) {
+      this.rounds = rounds;
+      this.low = low;
+      this.high = high;
+    }
+
+    @Override
+    protected void compute() {
+      if (high - low > GRAIN) {
+        int mid = low + (high - low) / (2 * GRAIN) * GRAIN;
+        if (mid == low) {
+          mid += GRAIN;
+        }
+        invokeAll(new Relax(rounds, low, mid), new Relax(rounds, mid, high));
+        return;
+      }
+      int[] offsets = rounds.graph.offsets;
+      int[] to = rounds.graph.to;
+      int[] weight = rounds.graph.weight;
+      AtomicLongArray best = rounds.best;
+      int slot = low / GRAIN;
+      int[] out = rounds.improved[slot];
+      int size = 0;
+      for (int i = low; i < high; i++) {
+        int cur = rounds.frontier[i];
+        int dist = (int) (best.get(cur) >> 32);
+        for (int arc = offsets[cur]; arc < offsets[cur + 1]; arc++) {
+          int next = to[arc];
+          int newDist = dist + weight[arc];
+          long packed = Rounds.pack(newDist, arc);
+          for (long old = best.get(next); newDist < (int) (old >> 32); old = best.get(next)) {
+            if (best.compareAndSet(next, old, packed)) {
+              if (size == out.length) {
+                out = Arrays.copyOf(out, 2 * size);
+              }
+              out[size++] = next;
+              break;
+            }
+          }
+        }
+      }
+      rounds.improved[slot] = out;
+      rounds.improvedSize[slot] = size;
+    }
+  }
+
+  /**
+   * Cycle of the graph of parent pointers, or null if it is a forest
+   *
+   * @time O(|V|)
+   */
+  static int[] findCycle(int[] nodeTo) {
+    int n = nodeTo.length;
+    int[] walk = new int[n]; // Walk that first reached each node plus 1, 0 if not reached yet
+    for (int start = 0; start < n; start++) {
+      int node = start;
+      while (node != -1 && walk[node] == 0) {
+        walk[node] = start + 1;
+        node = nodeTo[node];
+      }
+      if (node == -1 || walk[node] != start + 1) {
+        continue; // Joined a part already checked
+      }
+      int size = 1;
+      for (int cur = nodeTo[node]; cur != node; cur = nodeTo[cur]) {
+        size++;
+      }
+      int[] cycle = new int[size];
+      for (int i = size - 1, cur = node; i >= 0; i--, cur = nodeTo[cur]) {
+        cycle[i] = cur;
+      }
+      return cycle;
+    }
+    return null;
+  }
+
+}
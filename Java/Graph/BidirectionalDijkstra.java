@@ -0,0 +1,192 @@
+package Graph;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Point to point shortest paths with two Dijkstra searches: forward from the source on the graph
+ * and backward from the destination on its reverse graph, which is built once and shared by all
+ * the queries. Every time an arc joins both searches the best path found so far (mu) is updated,
+ * and the query stops when the sum of the smallest distances in both queues reaches mu. Each
+ * search only settles about a ball of half the radius, far fewer nodes than
+ * ShortestPaths.dijkstra(graph, source, dest) on road-like graphs. Only non-negative weights.
+ *
+ * The graphs are read-only, and the state of a search lives in a {@link Query}, so several
+ * threads can answer queries at the same time with one Query each.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class BidirectionalDijkstra {
+  static final int INF = ShortestPaths.INF;
+
+  final GraphWeightedCSR forward;
+  final GraphWeightedCSR backward;
+
+  /**
+   * @time O(|V| + |E|) to build the reverse graph
+   */
+  public BidirectionalDijkstra(GraphWeightedCSR graph) {
+    this.forward = graph;
+    this.backward = graph.reverse();
+  }
+
+  public Query newQuery() {
+    return new Query();
+  }
+
+  /**
+   * Distance from source to dest, INF if unreachable. Allocates a new Query: reuse one with
+   * newQuery() when answering many of them.
+   */
+  public int distance(int source, int dest) {
+    return newQuery().search(source, dest);
+  }
+
+  /**
+   * State of the searches of one thread. Only the nodes touched by the previous query are reset,
+   * so a query costs time proportional to the nodes it explores, not O(|V|).
+   */
+  class Query {
+    private final int[] distF;
+    private final int[] distB;
+    private final int[] nodeToF; // Previous node towards the source
+    private final int[] nodeToB; // Next node towards the destination
+    private final IndexedDHeap queueF;
+    private final IndexedDHeap queueB;
+    private int[] touched;
+    private int numTouched = 0;
+    private int settled = 0;
+
+    private int source;
+    private int dest;
+    private long best; // mu
+    private int meetF = -1; // The best path uses the arc meetF -> meetB
+    private int meetB = -1;
+
+    private Query() {
+      int n = forward.getNumVertices();
+      distF = new int[n];
+      distB = new int[n];
+      nodeToF = new int[n];
+      nodeToB = new int[n];
+      Arrays.fill(distF, INF);
+      Arrays.fill(distB, INF);
+      queueF = new IndexedDHeap(n);
+      queueB = new IndexedDHeap(n);
+      touched = new int[16];
+    }
+
+    /**
+     * @return Distance from source to dest, INF if unreachable
+     */
+    public int search(int source, int dest) {
+      reset();
+      this.source = source;
+      this.dest = dest;
+      best = INF;
+      meetF = meetB = -1;
+      touch(source);
+      touch(dest);
+      distF[source] = 0;
+      nodeToF[source] = -1;
+      distB[dest] = 0;
+      nodeToB[dest] = -1;
+      if (source == dest) {
+        best = 0;
+        return 0;
+      }
+      queueF.add(source, 0);
+      queueB.add(dest, 0);
+
+      while (!queueF.isEmpty() && !queueB.isEmpty()) {
+        long topF = queueF.priority(queueF.peek());
+        long topB = queueB.priority(queueB.peek());
+        if (topF + topB >= best) {
+          break;
+        }
+        if (topF <= topB) {
+          step(queueF, forward, distF, nodeToF, distB, true);
+        } else {
+          step(queueB, backward, distB, nodeToB, distF, false);
+        }
+      }
+      queueF.clear();
+      queueB.clear();
+      return (int) best;
+    }
+
+    /**
+     * Settles the closest node of one search and relaxes its arcs
+     */
+    private void step(IndexedDHeap queue, GraphWeightedCSR graph, int[] dist, int[] nodeTo,
+        int[] otherDist, boolean isForward) {
+      int cur = queue.poll();
+      settled++;
+      int[] offsets = graph.offsets;
+      int[] to = graph.to;
+      int[] weight = graph.weight;
+      for (int arc = offsets[cur]; arc < offsets[cur + 1]; arc++) {
+        int next = to[arc];
+        int newDist = dist[cur] + weight[arc];
+        if (newDist < dist[next]) {
+          if (dist[next] == INF && otherDist[next] == INF) {
+            touch(next);
+          }
+          dist[next] = newDist;
+          nodeTo[next] = cur;
+          queue.addOrDecrease(next, newDist);
+        }
+        if (otherDist[next] != INF && (long) dist[cur] + weight[arc] + otherDist[next] < best) {
+          best = (long) dist[cur] + weight[arc] + otherDist[next];
+          meetF = isForward ? cur : next;
+          meetB = isForward ? next : cur;
+        }
+      }
+    }
+
+    private void touch(int node) {
+      if (numTouched == touched.length) {
+        touched = Arrays.copyOf(touched, 2 * numTouched);
+      }
+      touched[numTouched++] = node;
+    }
+
+    private void reset() {
+      for (int i = 0; i < numTouched; i++) {
+        distF[touched[i]] = INF;
+        distB[touched[i]] = INF;
+      }
+      numTouched = 0;
+      settled = 0;
+    }
+
+    /**
+     * Nodes settled by both searches in the last query
+     */
+    public int getSettled() {
+      return settled;
+    }
+
+    /**
+     * Nodes of the shortest path found by the last search, or null if dest is unreachable
+     */
+    public ArrayDeque<Integer> path() {
+      if (best >= INF) {
+        return null;
+      }
+      ArrayDeque<Integer> path = new ArrayDeque<Integer>();
+      if (source == dest) {
+        path.add(source);
+        return path;
+      }
+      for (int node = meetF; node != -1; node = nodeToF[node]) {
+        path.addFirst(node);
+      }
+      for (int node = meetB; node != -1; node = nodeToB[node]) {
+        path.addLast(node);
+      }
+      return path;
+    }
+  }
+
+}
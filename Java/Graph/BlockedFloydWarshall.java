@@ -0,0 +1,145 @@
+package Graph;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Floyd-Warshall on a flat row-major int[] of n * n entries, split in square tiles of BLOCK x
+ * BLOCK. Round k of the tiles first closes the diagonal tile (k, k), then the tiles of row k and
+ * column k (which only depend on it and on themselves), and then every other tile (i, j), which
+ * only reads (i, k) and (k, j). The tiles of the last two phases are independent, so they run in
+ * parallel on a ForkJoinPool, and the three tiles an update touches stay in the cache while the
+ * inner loop runs over contiguous entries. Used by ShortestPaths.floydWarshall() and
+ * MiscGraph.minimax() on flat arrays.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class BlockedFloydWarshall {
+  static final int INF = ShortestPaths.INF;
+  static final int BLOCK = 64; // 16 KB of ints per tile
+
+  static final int MIN_PLUS = 0; // Shortest paths, with predecessors
+  static final int MIN_MAX = 1; // Minimax, without predecessors
+
+  final int n;
+  final int[] dist;
+  final int[] nodeTo; // null in MIN_MAX
+  final int mode;
+  final int numBlocks;
+
+  private BlockedFloydWarshall(int n, int[] dist, int[] nodeTo, int mode) {
+    this.n = n;
+    this.dist = dist;
+    this.nodeTo = nodeTo;
+    this.mode = mode;
+    this.numBlocks = (n + BLOCK - 1) / BLOCK;
+  }
+
+  /**
+   * All pairs shortest paths in place. dist[i * n + j] is the weight of the arc i -> j (INF if
+   * none, 0 if i = j), and nodeTo[i * n + j] ends as the node before j in the path from i.
+   *
+   * @time O(|V|^3) split among the threads of the pool
+   */
+  static void shortestPaths(int n, int[] dist, int[] nodeTo, ForkJoinPool pool) {
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        nodeTo[i * n + j] = i;
+      }
+    }
+    new BlockedFloydWarshall(n, dist, nodeTo, MIN_PLUS).run(pool);
+  }
+
+  /**
+   * Minimax in place: dist[i * n + j] ends as the minimum over the paths from i to j of their
+   * heaviest edge
+   *
+   * @time O(|V|^3) split among the threads of the pool
+   */
+  static void minimax(int n, int[] dist, ForkJoinPool pool) {
+    new BlockedFloydWarshall(n, dist, null, MIN_MAX).run(pool);
+  }
+
+  private void run(ForkJoinPool pool) {
+    for (int k = 0; k < numBlocks; k++) {
+      update(k, k, k);
+      pool.invoke(new Tiles(k, true, 0, numBlocks));
+      pool.invoke(new Tiles(k, false, 0, numBlocks));
+    }
+  }
+
+  /**
+   * Relaxes tile (bi, bj) through the intermediate nodes of block bk, in order
+   */
+  private void update(int bi, int bj, int bk) {
+    int[] dist = this.dist;
+    int[] nodeTo = this.nodeTo;
+    int i0 = bi * BLOCK, i1 = Math.min(n, i0 + BLOCK);
+    int j0 = bj * BLOCK, j1 = Math.min(n, j0 + BLOCK);
+    int k0 = bk * BLOCK, k1 = Math.min(n, k0 + BLOCK);
+    for (int k = k0; k < k1; k++) {
+      int rowK = k * n;
+      for (int i = i0; i < i1; i++) {
+        int rowI = i * n;
+        int ik = dist[rowI + k];
+        if (mode == MIN_PLUS) {
+          if (ik >= INF) {
+            continue;
+          }
+          for (int j = j0; j < j1; j++) {
+            int through = ik + dist[rowK + j];
+            if (through < dist[rowI + j]) {
+              dist[rowI + j] = through;
+              nodeTo[rowI + j] = nodeTo[rowK + j];
+            }
+          }
+        } else {
+          for (int j = j0; j < j1; j++) {
+            dist[rowI + j] = Math.min(dist[rowI + j], Math.max(ik, dist[rowK + j]));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Range of block rows (or block indices for the row and column of round k) split in halves
+   */
+  private class Tiles extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    final int k;
+    final boolean cross; // Row and column k, otherwise the rest of the tiles
+    final int low, high;
+
+    Tiles(int k, boolean cross, int low, int high) {
+      this.k = k;
+      this.cross = cross;
+      this.low = low;
+      this.high = high;
+    }
+
+    @Override
+    protected void compute() {
+      if (high - low > 1) {
+        int mid = (low + high) >>> 1;
+        invokeAll(new Tiles(k, cross, low, mid), new Tiles(k, cross, mid, high));
+        return;
+      }
+      if (low == k || low >= high) {
+        return;
+      }
+      if (cross) {
+        update(k, low, k);
+        update(low, k, k);
+        return;
+      }
+      for (int j = 0; j < numBlocks; j++) {
+        if (j != k) {
+          update(low, j, k);
+        }
+      }
+    }
+  }
+
+}
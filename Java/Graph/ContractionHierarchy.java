@@ -0,0 +1,654 @@
+package Graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import Graph.GraphWeighted.Edge;
+
+/**
+ * Contraction hierarchy for point to point shortest paths on a static graph with non-negative
+ * weights. The preprocessing contracts the nodes one by one in order of importance: a node is
+ * removed and, for every pair of neighbors u -> v -> x whose shortest path goes through it, a
+ * shortcut u -> x is added unless a witness search finds another path as short. A query is a
+ * bidirectional Dijkstra that only follows arcs towards more important nodes (upwards from both
+ * ends), so it settles a few hundred nodes even on graphs with millions of them. Shortcuts keep
+ * the two arcs they replace, so paths are unpacked back to the original arcs.
+ *
+ * The hierarchy is immutable and the state of a search lives in a {@link Query}, so several
+ * threads can answer queries at the same time with one Query each.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class ContractionHierarchy {
+  static final int INF = ShortestPaths.INF;
+  static final int MAGIC = 0x4A504348; // "JPCH"
+  static final int VERSION = 1;
+
+  // Settled nodes after which a witness search gives up and the shortcut is added anyway
+  static final int WITNESS_LIMIT = 500;
+  static final int SIMULATION_WITNESS_LIMIT = 20;
+
+  final int numVertices;
+  final int[] rank; // Position of each node in the contraction order
+  // Original arcs and shortcuts. child1 and child2 are the arcs a shortcut replaces, -1 for an
+  // original arc. Only the arcs with alive set are searched, the rest are only unpacked.
+  final int[] arcFrom, arcTo, arcWeight, child1, child2;
+  final boolean[] alive;
+
+  // Search graphs: arcs to a higher ranked node stored at their source (upwards), and arcs from
+  // a higher ranked node stored at their target (downwards, searched backwards from the target)
+  final int[] upOffsets, upHead, upWeight, upArc;
+  final int[] downOffsets, downHead, downWeight, downArc;
+
+  private ContractionHierarchy(int numVertices, int[] rank, int[] arcFrom, int[] arcTo,
+      int[] arcWeight, int[] child1, int[] child2, boolean[] alive) {
+    this.numVertices = numVertices;
+    this.rank = rank;
+    this.arcFrom = arcFrom;
+    this.arcTo = arcTo;
+    this.arcWeight = arcWeight;
+    this.child1 = child1;
+    this.child2 = child2;
+    this.alive = alive;
+
+    upOffsets = new int[numVertices + 1];
+    downOffsets = new int[numVertices + 1];
+    for (int arc = 0; arc < arcFrom.length; arc++) {
+      if (!alive[arc]) {
+        continue;
+      }
+      if (rank[arcFrom[arc]] < rank[arcTo[arc]]) {
+        upOffsets[arcFrom[arc] + 1]++;
+      } else {
+        downOffsets[arcTo[arc] + 1]++;
+      }
+    }
+    for (int node = 0; node < numVertices; node++) {
+      upOffsets[node + 1] += upOffsets[node];
+      downOffsets[node + 1] += downOffsets[node];
+    }
+    upHead = new int[upOffsets[numVertices]];
+    upWeight = new int[upHead.length];
+    upArc = new int[upHead.length];
+    downHead = new int[downOffsets[numVertices]];
+    downWeight = new int[downHead.length];
+    downArc = new int[downHead.length];
+    int[] upPos = Arrays.copyOf(upOffsets, numVertices);
+    int[] downPos = Arrays.copyOf(downOffsets, numVertices);
+    for (int arc = 0; arc < arcFrom.length; arc++) {
+      if (!alive[arc]) {
+        continue;
+      }
+      if (rank[arcFrom[arc]] < rank[arcTo[arc]]) {
+        int i = upPos[arcFrom[arc]]++;
+        upHead[i] = arcTo[arc];
+        upWeight[i] = arcWeight[arc];
+        upArc[i] = arc;
+      } else {
+        int i = downPos[arcTo[arc]]++;
+        downHead[i] = arcFrom[arc];
+        downWeight[i] = arcWeight[arc];
+        downArc[i] = arc;
+      }
+    }
+  }
+
+  /**
+   * Contracts the nodes in order of twice the edge difference (shortcuts added minus arcs
+   * removed) plus the number of contracted neighbors, which keeps the shortcuts few and the
+   * hierarchy flat.
+   * Priorities are updated lazily: a node whose recomputed priority is no longer the lowest goes
+   * back to the queue. Parallel arcs keep the lightest one and self loops are dropped.
+   *
+   * @time O(|V| * witness searches) in practice, near linear on road networks
+   */
+  public static ContractionHierarchy build(GraphWeightedCSR graph) {
+    return new Preprocessor(graph).run();
+  }
+
+  public int getNumVertices() {
+    return numVertices;
+  }
+
+  /**
+   * Original arcs plus shortcuts
+   */
+  public int getNumArcs() {
+    return arcFrom.length;
+  }
+
+  /**
+   * Format: MAGIC, VERSION, numVertices, numArcs, rank[numVertices], and for each arc from, to,
+   * weight, child1, child2 and alive (0 or 1). The search graphs are rebuilt when loading.
+   *
+   * @time O(|V| + |E|)
+   */
+  public void save(File file) throws IOException {
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(
+        file), 1 << 16));
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(numVertices);
+      out.writeInt(arcFrom.length);
+      for (int node = 0; node < numVertices; node++) {
+        out.writeInt(rank[node]);
+      }
+      for (int arc = 0; arc < arcFrom.length; arc++) {
+        out.writeInt(arcFrom[arc]);
+        out.writeInt(arcTo[arc]);
+        out.writeInt(arcWeight[arc]);
+        out.writeInt(child1[arc]);
+        out.writeInt(child2[arc]);
+        out.writeBoolean(alive[arc]);
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * @time O(|V| + |E|)
+   */
+  public static ContractionHierarchy load(File file) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file),
+        1 << 16));
+    try {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Not a contraction hierarchy file: " + file);
+      }
+      int numVertices = in.readInt();
+      int numArcs = in.readInt();
+      int[] rank = new int[numVertices];
+      for (int node = 0; node < numVertices; node++) {
+        rank[node] = in.readInt();
+      }
+      int[] arcFrom = new int[numArcs];
+      int[] arcTo = new int[numArcs];
+      int[] arcWeight = new int[numArcs];
+      int[] child1 = new int[numArcs];
+      int[] child2 = new int[numArcs];
+      boolean[] alive = new boolean[numArcs];
+      for (int arc = 0; arc < numArcs; arc++) {
+        arcFrom[arc] = in.readInt();
+        arcTo[arc] = in.readInt();
+        arcWeight[arc] = in.readInt();
+        child1[arc] = in.readInt();
+        child2[arc] = in.readInt();
+        alive[arc] = in.readBoolean();
+      }
+      return new ContractionHierarchy(numVertices, rank, arcFrom, arcTo, arcWeight, child1,
+          child2, alive);
+    } finally {
+      in.close();
+    }
+  }
+
+  public Query newQuery() {
+    return new Query();
+  }
+
+  /**
+   * Distance from source to dest, INF if unreachable. Allocates a new Query: reuse one with
+   * newQuery() when answering many of them.
+   */
+  public int distance(int source, int dest) {
+    return newQuery().search(source, dest);
+  }
+
+  /**
+   * State of the searches of one thread. Only the nodes touched by the previous query are reset,
+   * so a query costs time proportional to the nodes it explores, not O(|V|).
+   */
+  class Query {
+    private final int[] distF;
+    private final int[] distB;
+    private final int[] arcToF; // Arc reaching the node from the source side, -1 for the source
+    private final int[] arcToB; // Arc leaving the node towards dest, -1 for dest
+    private final IndexedDHeap queueF;
+    private final IndexedDHeap queueB;
+    private int[] touched;
+    private int numTouched = 0;
+    private int settled = 0;
+    private int best;
+    private int meet = -1;
+
+    private Query() {
+      distF = new int[numVertices];
+      distB = new int[numVertices];
+      arcToF = new int[numVertices];
+      arcToB = new int[numVertices];
+      Arrays.fill(distF, INF);
+      Arrays.fill(distB, INF);
+      queueF = new IndexedDHeap(numVertices);
+      queueB = new IndexedDHeap(numVertices);
+      touched = new int[16];
+    }
+
+    /**
+     * Upward searches from both ends, alternating. A direction stops once its smallest distance
+     * reaches the best path found. Nodes that can be reached shorter through a higher ranked node
+     * are stalled (not expanded), as their distance can't be part of a shortest path.
+     *
+     * @return Distance from source to dest, INF if unreachable
+     */
+    public int search(int source, int dest) {
+      for (int i = 0; i < numTouched; i++) {
+        distF[touched[i]] = INF;
+        distB[touched[i]] = INF;
+      }
+      numTouched = 0;
+      settled = 0;
+      best = INF;
+      meet = -1;
+
+      touch(source);
+      touch(dest);
+      distF[source] = 0;
+      arcToF[source] = -1;
+      distB[dest] = 0;
+      arcToB[dest] = -1;
+      queueF.add(source, 0);
+      queueB.add(dest, 0);
+
+      boolean forward = true;
+      while (!queueF.isEmpty() || !queueB.isEmpty()) {
+        if (!queueF.isEmpty() && queueF.priority(queueF.peek()) >= best) {
+          queueF.clear();
+        }
+        if (!queueB.isEmpty() && queueB.priority(queueB.peek()) >= best) {
+          queueB.clear();
+        }
+        if (forward ? queueF.isEmpty() : queueB.isEmpty()) {
+          forward = !forward;
+          continue;
+        }
+        if (forward) {
+          step(queueF, distF, distB, arcToF, upOffsets, upHead, upWeight, upArc, downOffsets,
+              downHead, downWeight);
+        } else {
+          step(queueB, distB, distF, arcToB, downOffsets, downHead, downWeight, downArc,
+              upOffsets, upHead, upWeight);
+        }
+        forward = !forward;
+      }
+      return best;
+    }
+
+    /**
+     * Settles the closest node of one direction. The stall check looks at the arcs entering the
+     * node from higher ranked nodes in this direction, which are the ones of the other graph.
+     */
+    private void step(IndexedDHeap queue, int[] dist, int[] otherDist, int[] arcTo,
+        int[] offsets, int[] head, int[] weight, int[] arcId, int[] stallOffsets,
+        int[] stallHead, int[] stallWeight) {
+      int cur = queue.poll();
+      settled++;
+      if (otherDist[cur] != INF && dist[cur] + otherDist[cur] < best) {
+        best = dist[cur] + otherDist[cur];
+        meet = cur;
+      }
+      for (int i = stallOffsets[cur]; i < stallOffsets[cur + 1]; i++) {
+        int higher = stallHead[i];
+        if (dist[higher] != INF && dist[higher] + stallWeight[i] < dist[cur]) {
+          return;
+        }
+      }
+      for (int i = offsets[cur]; i < offsets[cur + 1]; i++) {
+        int next = head[i];
+        int newDist = dist[cur] + weight[i];
+        if (newDist < dist[next]) {
+          if (distF[next] == INF && distB[next] == INF) {
+            touch(next);
+          }
+          dist[next] = newDist;
+          arcTo[next] = arcId[i];
+          queue.addOrDecrease(next, newDist);
+        }
+      }
+    }
+
+    private void touch(int node) {
+      if (numTouched == touched.length) {
+        touched = Arrays.copyOf(touched, 2 * numTouched);
+      }
+      touched[numTouched++] = node;
+    }
+
+    /**
+     * Nodes settled by both searches in the last query
+     */
+    public int getSettled() {
+      return settled;
+    }
+
+    /**
+     * Original arcs of the shortest path found by the last search, with the shortcuts unpacked,
+     * or null if dest is unreachable. Empty if source and dest are the same node.
+     */
+    public ArrayDeque<Edge> pathTo() {
+      if (best == INF) {
+        return null;
+      }
+      ArrayDeque<Integer> arcs = new ArrayDeque<Integer>();
+      for (int node = meet; arcToF[node] != -1; node = arcFrom[arcToF[node]]) {
+        arcs.addFirst(arcToF[node]);
+      }
+      for (int node = meet; arcToB[node] != -1; node = arcTo[arcToB[node]]) {
+        arcs.addLast(arcToB[node]);
+      }
+
+      ArrayDeque<Edge> path = new ArrayDeque<Edge>();
+      ArrayDeque<Integer> stack = new ArrayDeque<Integer>();
+      while (!arcs.isEmpty()) {
+        stack.push(arcs.removeFirst());
+        while (!stack.isEmpty()) {
+          int arc = stack.pop();
+          if (child1[arc] == -1) {
+            path.addLast(new Edge(arcFrom[arc], arcTo[arc], arcWeight[arc]));
+          } else {
+            stack.push(child2[arc]);
+            stack.push(child1[arc]);
+          }
+        }
+      }
+      return path;
+    }
+
+    /**
+     * Nodes of the shortest path found by the last search, or null if dest is unreachable
+     */
+    public ArrayDeque<Integer> path() {
+      ArrayDeque<Edge> edges = pathTo();
+      if (edges == null) {
+        return null;
+      }
+      ArrayDeque<Integer> path = new ArrayDeque<Integer>();
+      path.add(meet);
+      if (!edges.isEmpty()) {
+        path.clear();
+        path.add(edges.peekFirst().from);
+        for (Edge edge : edges) {
+          path.add(edge.to);
+        }
+      }
+      return path;
+    }
+  }
+
+  /**
+   * Contraction state: the arcs between uncontracted nodes are kept in per node lists of arc ids
+   * that are cleaned lazily when a neighbor has been contracted.
+   */
+  private static class Preprocessor {
+    final int n;
+    int numArcs = 0;
+    int[] arcFrom, arcTo, arcWeight, child1, child2;
+    boolean[] alive;
+    final int[][] out, in;
+    final int[] outSize, inSize;
+    final boolean[] contracted;
+    final int[] contractedNeighbors;
+
+    // Witness search workspace
+    final int[] dist;
+    final boolean[] isTarget; // Out neighbors of the node being contracted
+    final IndexedDHeap queue;
+    int[] touched = new int[16];
+    int numTouched = 0;
+
+    Preprocessor(GraphWeightedCSR graph) {
+      n = graph.getNumVertices();
+      int capacity = Math.max(16, graph.getNumArcs());
+      arcFrom = new int[capacity];
+      arcTo = new int[capacity];
+      arcWeight = new int[capacity];
+      child1 = new int[capacity];
+      child2 = new int[capacity];
+      alive = new boolean[capacity];
+      out = new int[n][];
+      in = new int[n][];
+      outSize = new int[n];
+      inSize = new int[n];
+      contracted = new boolean[n];
+      contractedNeighbors = new int[n];
+      dist = new int[n];
+      Arrays.fill(dist, INF);
+      isTarget = new boolean[n];
+      queue = new IndexedDHeap(n);
+
+      int[] lightest = new int[n]; // Arc from the current node to each target, -1 if none
+      Arrays.fill(lightest, -1);
+      for (int node = 0; node < n; node++) {
+        out[node] = new int[4];
+        in[node] = new int[4];
+      }
+      for (int node = 0; node < n; node++) {
+        int first = numArcs;
+        for (int arc = graph.start(node); arc < graph.end(node); arc++) {
+          int target = graph.to(arc);
+          if (target == node) {
+            continue;
+          }
+          if (lightest[target] == -1) {
+            lightest[target] = addArc(node, target, graph.weight(arc), -1, -1);
+          } else if (graph.weight(arc) < arcWeight[lightest[target]]) {
+            arcWeight[lightest[target]] = graph.weight(arc);
+          }
+        }
+        for (int arc = first; arc < numArcs; arc++) {
+          lightest[arcTo[arc]] = -1;
+          link(arc);
+        }
+      }
+    }
+
+    int addArc(int from, int to, int weight, int first, int second) {
+      if (numArcs == arcFrom.length) {
+        arcFrom = Arrays.copyOf(arcFrom, 2 * numArcs);
+        arcTo = Arrays.copyOf(arcTo, 2 * numArcs);
+        arcWeight = Arrays.copyOf(arcWeight, 2 * numArcs);
+        child1 = Arrays.copyOf(child1, 2 * numArcs);
+        child2 = Arrays.copyOf(child2, 2 * numArcs);
+        alive = Arrays.copyOf(alive, 2 * numArcs);
+      }
+      arcFrom[numArcs] = from;
+      arcTo[numArcs] = to;
+      arcWeight[numArcs] = weight;
+      child1[numArcs] = first;
+      child2[numArcs] = second;
+      alive[numArcs] = true;
+      return numArcs++;
+    }
+
+    void link(int arc) {
+      int from = arcFrom[arc];
+      int to = arcTo[arc];
+      if (outSize[from] == out[from].length) {
+        out[from] = Arrays.copyOf(out[from], 2 * outSize[from]);
+      }
+      out[from][outSize[from]++] = arc;
+      if (inSize[to] == in[to].length) {
+        in[to] = Arrays.copyOf(in[to], 2 * inSize[to]);
+      }
+      in[to][inSize[to]++] = arc;
+    }
+
+    /**
+     * Removes from the lists of the node the arcs to contracted nodes and the dead arcs
+     */
+    void cleanup(int node) {
+      int size = 0;
+      for (int i = 0; i < outSize[node]; i++) {
+        int arc = out[node][i];
+        if (alive[arc] && !contracted[arcTo[arc]]) {
+          out[node][size++] = arc;
+        }
+      }
+      outSize[node] = size;
+      size = 0;
+      for (int i = 0; i < inSize[node]; i++) {
+        int arc = in[node][i];
+        if (alive[arc] && !contracted[arcFrom[arc]]) {
+          in[node][size++] = arc;
+        }
+      }
+      inSize[node] = size;
+    }
+
+    ContractionHierarchy run() {
+      int[] rank = new int[n];
+      IndexedDHeap order = new IndexedDHeap(n);
+      for (int node = 0; node < n; node++) {
+        order.add(node, priority(node));
+      }
+
+      int next = 0;
+      while (!order.isEmpty()) {
+        int node = order.poll();
+        long priority = priority(node);
+        if (!order.isEmpty() && priority > order.priority(order.peek())) {
+          order.add(node, priority); // Lazy update
+          continue;
+        }
+        contract(node, false);
+        contracted[node] = true;
+        rank[node] = next++;
+        for (int i = 0; i < outSize[node]; i++) {
+          contractedNeighbors[arcTo[out[node][i]]]++;
+        }
+        for (int i = 0; i < inSize[node]; i++) {
+          contractedNeighbors[arcFrom[in[node][i]]]++;
+        }
+      }
+      return new ContractionHierarchy(n, rank, Arrays.copyOf(arcFrom, numArcs), Arrays.copyOf(
+          arcTo, numArcs), Arrays.copyOf(arcWeight, numArcs), Arrays.copyOf(child1, numArcs),
+          Arrays.copyOf(child2, numArcs), Arrays.copyOf(alive, numArcs));
+    }
+
+    long priority(int node) {
+      cleanup(node);
+      int shortcuts = contract(node, true);
+      return 2 * (shortcuts - outSize[node] - inSize[node]) + contractedNeighbors[node];
+    }
+
+    /**
+     * Adds (or only counts if simulate is set) the shortcuts needed to remove the node
+     */
+    int contract(int node, boolean simulate) {
+      cleanup(node);
+      int shortcuts = 0;
+      for (int i = 0; i < inSize[node]; i++) {
+        int inArc = in[node][i];
+        int from = arcFrom[inArc];
+        int maxDist = -1;
+        for (int j = 0; j < outSize[node]; j++) {
+          int outArc = out[node][j];
+          if (arcTo[outArc] != from) {
+            maxDist = Math.max(maxDist, arcWeight[inArc] + arcWeight[outArc]);
+          }
+        }
+        if (maxDist == -1) { // No pair of neighbors to connect
+          continue;
+        }
+        witnessSearch(from, node, maxDist, simulate ? SIMULATION_WITNESS_LIMIT : WITNESS_LIMIT);
+        for (int j = 0; j < outSize[node]; j++) {
+          int outArc = out[node][j];
+          int to = arcTo[outArc];
+          int viaNode = arcWeight[inArc] + arcWeight[outArc];
+          if (to == from || dist[to] <= viaNode) {
+            continue;
+          }
+          shortcuts++;
+          if (!simulate) {
+            addShortcut(from, to, viaNode, inArc, outArc);
+          }
+        }
+        resetWitness();
+      }
+      return shortcuts;
+    }
+
+    /**
+     * Adds the shortcut unless an arc from -> to is already as light, and replaces it otherwise
+     */
+    void addShortcut(int from, int to, int weight, int first, int second) {
+      for (int i = 0; i < outSize[from]; i++) {
+        int arc = out[from][i];
+        if (arcTo[arc] == to && alive[arc]) {
+          if (arcWeight[arc] <= weight) {
+            return;
+          }
+          alive[arc] = false; // Cleaned from the lists lazily
+        }
+      }
+      link(addArc(from, to, weight, first, second));
+    }
+
+    /**
+     * Dijkstra from source avoiding the node being contracted, until the targets are settled,
+     * maxDist is passed or the limit of settled nodes is reached. Leaves the distances found in
+     * dist.
+     */
+    void witnessSearch(int source, int avoid, int maxDist, int limit) {
+      int targets = 0;
+      for (int i = 0; i < outSize[avoid]; i++) {
+        if (!isTarget[arcTo[out[avoid][i]]]) {
+          isTarget[arcTo[out[avoid][i]]] = true;
+          targets++;
+        }
+      }
+      dist[source] = 0;
+      touched[numTouched++] = source;
+      queue.add(source, 0);
+      int settled = 0;
+      while (!queue.isEmpty() && settled++ < limit && targets > 0) {
+        int cur = queue.poll();
+        if (dist[cur] > maxDist) {
+          break;
+        }
+        if (isTarget[cur]) {
+          targets--;
+        }
+        for (int i = 0; i < outSize[cur]; i++) {
+          int arc = out[cur][i];
+          int next = arcTo[arc];
+          if (!alive[arc] || contracted[next] || next == avoid) {
+            continue;
+          }
+          int newDist = dist[cur] + arcWeight[arc];
+          if (newDist < dist[next]) {
+            if (dist[next] == INF) {
+              if (numTouched == touched.length) {
+                touched = Arrays.copyOf(touched, 2 * numTouched);
+              }
+              touched[numTouched++] = next;
+            }
+            dist[next] = newDist;
+            queue.addOrDecrease(next, newDist);
+          }
+        }
+      }
+      queue.clear();
+      for (int i = 0; i < outSize[avoid]; i++) {
+        isTarget[arcTo[out[avoid][i]]] = false;
+      }
+    }
+
+    void resetWitness() {
+      for (int i = 0; i < numTouched; i++) {
+        dist[touched[i]] = INF;
+      }
+      numTouched = 0;
+    }
+  }
+
+}
@@ -0,0 +1,305 @@
+package Graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Parallel single source shortest paths (delta-stepping, Meyer and Sanders) for graphs with
+ * non-negative weights. The nodes are kept in buckets of width delta by tentative distance, and
+ * the lowest bucket is emptied in phases: all its nodes relax their light arcs (weight <= delta)
+ * in parallel, which can only refill the same bucket, and once it stays empty the nodes removed
+ * from it relax their heavy arcs once. A small delta behaves like Dijkstra (little extra work,
+ * little parallelism) and a big one like Bellman-Ford.
+ *
+ * The tentative distance and the arc reaching each node are packed in one long of an
+ * AtomicLongArray, so the threads update both with a single compareAndSet that only succeeds
+ * with a lower distance. The buckets are merged by the calling thread between phases.
+ *
+ * The graph is read-only, but the workspace is shared by the searches of one instance, so they
+ * run one at a time (each one already uses every thread of the pool).
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class DeltaStepping {
+  static final int INF = ShortestPaths.INF;
+  static final int GRAIN = 512; // Nodes per task
+  static final int MAX_BUCKETS = 1 << 22;
+  private static final long UNREACHED = (long) INF << 32 | 0xFFFFFFFFL; // INF and arc -1
+
+  final GraphWeightedCSR graph;
+  final int delta;
+  final ForkJoinPool pool;
+
+  private final AtomicLongArray best; // distance << 32 | arc
+  private final int numBuckets; // Cyclic: the nodes queued are at most numBuckets - 1 ahead
+  private final int[][] buckets;
+  private final int[] bucketSize;
+  private final int[] queuedIn; // Last bucket the node was added to, to add it only once
+  private final int[] roundOf; // Last light round the node was added to
+  private final int[] removedFrom; // Last bucket the node was removed from
+  private int[] frontier = new int[16];
+  private int[] nextFrontier = new int[16];
+  private int[] removed = new int[16];
+  private int[][] improved = new int[0][]; // Nodes improved by each task in the last phase
+  private int[] improvedSize = new int[0];
+
+  /**
+   * Delta chosen by defaultDelta()
+   */
+  public DeltaStepping(GraphWeightedCSR graph, ForkJoinPool pool) {
+    this(graph, defaultDelta(graph), pool);
+  }
+
+  /**
+   * @param delta
+   *          Width of the buckets, at least 1 and not below maxWeight / 2^22
+   */
+  public DeltaStepping(GraphWeightedCSR graph, int delta, ForkJoinPool pool) {
+    if (graph.getMinWeight() < 0) {
+      throw new IllegalArgumentException("Negative weight " + graph.getMinWeight());
+    }
+    if (delta < 1 || graph.getMaxWeight() / delta + 2 > MAX_BUCKETS) {
+      throw new IllegalArgumentException("Delta " + delta + " for max weight "
+          + graph.getMaxWeight());
+    }
+    int n = graph.getNumVertices();
+    this.graph = graph;
+    this.delta = delta;
+    this.pool = pool;
+    best = new AtomicLongArray(n);
+    numBuckets = graph.getMaxWeight() / delta + 2;
+    buckets = new int[numBuckets][];
+    bucketSize = new int[numBuckets];
+    queuedIn = new int[n];
+    roundOf = new int[n];
+    removedFrom = new int[n];
+  }
+
+  /**
+   * Max weight over the average out degree, so a light phase relaxes about one arc per node
+   */
+  public static int defaultDelta(GraphWeightedCSR graph) {
+    long avgDegree = Math.max(1, graph.getNumArcs() / Math.max(1, graph.getNumVertices()));
+    return (int) Math.max(1, graph.getMaxWeight() / avgDegree);
+  }
+
+  /**
+   * Same distances as ShortestPaths.dijkstra(graph, source). With equal distances the arc
+   * reaching a node may differ, but the tree has no cycles even with zero weights: a node only
+   * takes an arc from a node whose distance was already final.
+   *
+   * @param treePool
+   *          Pool the tree is taken from, or <code>null</code> to allocate a new one
+   * @time O(|E| + |V| + L / delta) work for max distance L, in about L / delta phases
+   */
+  public synchronized ShortestPathTree search(int source, ShortestPathTree.Pool treePool) {
+    int n = graph.getNumVertices();
+    pool.invoke(new Task(Task.RESET, null, null, 0, n));
+    best.set(source, 0xFFFFFFFFL);
+    long pending = 0; // Nodes in the buckets, including stale ones
+    pending += addToBucket(source, 0);
+
+    int round = 0;
+    for (int bucket = 0; pending > 0; bucket++) {
+      int b = bucket % numBuckets;
+      if (bucketSize[b] == 0) {
+        continue;
+      }
+      pending -= bucketSize[b];
+      round++;
+      int frontierSize = 0;
+      for (int i = 0; i < bucketSize[b]; i++) {
+        int node = buckets[b][i];
+        if (bucketOf(node) == bucket) { // Otherwise it moved to a lower bucket
+          roundOf[node] = round;
+          frontier = add(frontier, frontierSize++, node);
+        }
+      }
+      bucketSize[b] = 0;
+
+      int numRemoved = 0;
+      while (frontierSize > 0) {
+        for (int i = 0; i < frontierSize; i++) {
+          if (removedFrom[frontier[i]] != bucket) {
+            removedFrom[frontier[i]] = bucket;
+            removed = add(removed, numRemoved++, frontier[i]);
+          }
+        }
+        relax(Task.LIGHT, frontier, frontierSize);
+        round++;
+        int nextSize = 0;
+        for (int task = 0; task < numTasks(frontierSize); task++) {
+          for (int i = 0; i < improvedSize[task]; i++) {
+            int node = improved[task][i];
+            int nodeBucket = bucketOf(node);
+            if (nodeBucket == bucket) {
+              if (roundOf[node] != round) {
+                roundOf[node] = round;
+                nextFrontier = add(nextFrontier, nextSize++, node);
+              }
+            } else {
+              pending += addToBucket(node, nodeBucket);
+            }
+          }
+        }
+        int[] aux = frontier;
+        frontier = nextFrontier;
+        nextFrontier = aux;
+        frontierSize = nextSize;
+      }
+
+      relax(Task.HEAVY, removed, numRemoved);
+      for (int task = 0; task < numTasks(numRemoved); task++) {
+        for (int i = 0; i < improvedSize[task]; i++) {
+          int node = improved[task][i];
+          pending += addToBucket(node, bucketOf(node)); // Always above the current one
+        }
+      }
+    }
+
+    ShortestPathTree tree = ShortestPathTree.acquire(treePool, n, source);
+    pool.invoke(new Task(Task.UNPACK, null, tree, 0, n));
+    return tree;
+  }
+
+  private int bucketOf(int node) {
+    return (int) (best.get(node) >>> 32) / delta;
+  }
+
+  /**
+   * @return 1 if added, 0 if it already was in that bucket
+   */
+  private int addToBucket(int node, int bucket) {
+    if (queuedIn[node] == bucket) {
+      return 0;
+    }
+    queuedIn[node] = bucket;
+    int b = bucket % numBuckets;
+    if (buckets[b] == null) {
+      buckets[b] = new int[16];
+    }
+    buckets[b] = add(buckets[b], bucketSize[b]++, node);
+    return 1;
+  }
+
+  private static int[] add(int[] array, int size, int value) {
+    if (size == array.length) {
+      array = Arrays.copyOf(array, 2 * size);
+    }
+    array[size] = value;
+    return array;
+  }
+
+  private static int numTasks(int size) {
+    return (size + GRAIN - 1) / GRAIN;
+  }
+
+  /**
+   * Relaxes in parallel the light or heavy arcs of the nodes, leaving the nodes whose distance
+   * improved in improved[task]
+   */
+  private void relax(int kind, int[] nodes, int size) {
+    int tasks = numTasks(size);
+    if (tasks == 0) {
+      return;
+    }
+    if (improved.length < tasks) {
+      improved = Arrays.copyOf(improved, Math.max(tasks, 2 * improved.length));
+      improvedSize = Arrays.copyOf(improvedSize, improved.length);
+    }
+    for (int task = 0; task < tasks; task++) {
+      if (improved[task] == null) {
+        improved[task] = new int[GRAIN];
+      }
+    }
+    Task task = new Task(kind, nodes, null, 0, size);
+    if (tasks == 1) {
+      task.compute(); // Not worth waking up the pool
+    } else {
+      pool.invoke(task);
+    }
+  }
+
+  /**
+   * Range of nodes split in halves down to GRAIN nodes. The leaves of the relax phases start at
+   * a multiple of GRAIN, which identifies their slot in improved.
+   */
+  private class Task extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    static final int LIGHT = 0, HEAVY = 1, RESET = 2, UNPACK = 3;
+
+    final int kind;
+    final int[] nodes;
+    final ShortestPathTree tree;
+    final int low, high;
+
+    Task(int kind, int[] nodes, ShortestPathTree tree, int low, int high) {
+      this.kind = kind;
+      this.nodes = nodes;
+      this.tree = tree;
+      this.low = low;
+      this.high = high;
+    }
+
+    @Override
+    protected void compute() {
+      if (high - low > GRAIN) {
+        int mid = low + (high - low) / (2 * GRAIN) * GRAIN;
+        if (mid == low) {
+          mid += GRAIN;
+        }
+        invokeAll(new Task(kind, nodes, tree, low, mid), new Task(kind, nodes, tree, mid, high));
+      } else if (kind == RESET) {
+        for (int node = low; node < high; node++) {
+          best.set(node, UNREACHED);
+          queuedIn[node] = -1;
+          roundOf[node] = -1;
+          removedFrom[node] = -1;
+        }
+      } else if (kind == UNPACK) {
+        for (int node = low; node < high; node++) {
+          long packed = best.get(node);
+          tree.distTo[node] = (int) (packed >>> 32);
+          tree.arcTo[node] = (int) packed;
+          tree.nodeTo[node] = tree.arcTo[node] == -1 ? -1 : graph.from(tree.arcTo[node]);
+        }
+      } else {
+        relaxLeaf();
+      }
+    }
+
+    private void relaxLeaf() {
+      int[] offsets = graph.offsets;
+      int[] to = graph.to;
+      int[] weight = graph.weight;
+      boolean light = kind == LIGHT;
+      int slot = low / GRAIN;
+      int[] out = improved[slot];
+      int size = 0;
+      for (int i = low; i < high; i++) {
+        int cur = nodes[i];
+        long dist = best.get(cur) >>> 32;
+        for (int arc = offsets[cur]; arc < offsets[cur + 1]; arc++) {
+          if ((weight[arc] <= delta) != light) {
+            continue;
+          }
+          int next = to[arc];
+          long newDist = dist + weight[arc];
+          long packed = newDist << 32 | arc & 0xFFFFFFFFL;
+          for (long old = best.get(next); newDist < old >>> 32; old = best.get(next)) {
+            if (best.compareAndSet(next, old, packed)) {
+              out = add(out, size++, next);
+              break;
+            }
+          }
+        }
+      }
+      improved[slot] = out;
+      improvedSize[slot] = size;
+    }
+  }
+
+}
@@ -0,0 +1,350 @@
+package Graph;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import Graph.GraphWeighted.Edge;
+import Graph.GraphWeighted.GraphWE;
+
+/**
+ * Shortest path tree from a fixed source that is repaired after every change of the graph
+ * instead of recomputed (Ramalingam and Reps). The graph is copied into an arc pool with in and
+ * out lists per node, and arcs are then added, removed and reweighted through this class.
+ *
+ * A cheaper path (added arc or lower weight) only improves nodes reachable from its end, which
+ * are updated with a Dijkstra started from there. A tree arc that gets more expensive (removed
+ * or higher weight) only affects the subtree below it: its nodes are reset, each one takes the
+ * best arc from a node outside the subtree, and a Dijkstra restricted to the subtree settles
+ * them. Any other change leaves the tree as it is. Both cost O(affected arcs * log |V|) instead
+ * of a full Dijkstra. Only non-negative weights.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class DynamicShortestPaths {
+  static final int INF = ShortestPaths.INF;
+
+  final int numVertices;
+  final int source;
+
+  // Arc pool, ids never reused. Removed arcs are dropped from the lists.
+  private int numArcs = 0;
+  private int[] arcFrom, arcTo, arcWeight;
+  private boolean[] alive;
+  private final int[][] out, in;
+  private final int[] outSize, inSize;
+
+  private final int[] distTo;
+  private final int[] treeArc; // Arc reaching each node in the tree, -1 if none
+  private final IndexedDHeap queue;
+  private final int[] inSubtree; // Update number that last put the node in the affected subtree
+  private int updates = 0;
+  private int[] subtree = new int[16];
+  private int lastAffected = 0;
+
+  /**
+   * Copies the arcs of the graph (ids in the order of the adjacency lists) and computes the
+   * tree from scratch
+   *
+   * @time O(|E| log |V|)
+   */
+  public DynamicShortestPaths(GraphWE graph, int source) {
+    this(graph.getNumVertices(), source, Math.max(16, 2 * graph.getNumEdges()));
+    for (int node = 0; node < numVertices; node++) {
+      for (Edge edge : graph.adj(node)) {
+        link(newArc(edge.from, edge.to, edge.weight));
+      }
+    }
+    distTo[source] = 0;
+    relaxFrom(source);
+  }
+
+  /**
+   * Same as DynamicShortestPaths(GraphWE, int), with the arc ids of the frozen graph
+   */
+  public DynamicShortestPaths(GraphWeightedCSR graph, int source) {
+    this(graph.getNumVertices(), source, Math.max(16, graph.getNumArcs()));
+    for (int node = 0; node < numVertices; node++) {
+      for (int arc = graph.start(node); arc < graph.end(node); arc++) {
+        link(newArc(node, graph.to(arc), graph.weight(arc)));
+      }
+    }
+    distTo[source] = 0;
+    relaxFrom(source);
+  }
+
+  private DynamicShortestPaths(int numVertices, int source, int capacity) {
+    this.numVertices = numVertices;
+    this.source = source;
+    arcFrom = new int[capacity];
+    arcTo = new int[capacity];
+    arcWeight = new int[capacity];
+    alive = new boolean[capacity];
+    out = new int[numVertices][];
+    in = new int[numVertices][];
+    outSize = new int[numVertices];
+    inSize = new int[numVertices];
+    for (int node = 0; node < numVertices; node++) {
+      out[node] = new int[2];
+      in[node] = new int[2];
+    }
+    distTo = new int[numVertices];
+    treeArc = new int[numVertices];
+    Arrays.fill(distTo, INF);
+    Arrays.fill(treeArc, -1);
+    queue = new IndexedDHeap(numVertices);
+    inSubtree = new int[numVertices];
+  }
+
+  public int getSource() {
+    return source;
+  }
+
+  public int distanceTo(int node) {
+    return distTo[node];
+  }
+
+  public boolean hasPathTo(int node) {
+    return distTo[node] != INF;
+  }
+
+  /**
+   * Arc reaching the node in the tree, -1 for the source and unreachable nodes
+   */
+  public int arcTo(int node) {
+    return treeArc[node];
+  }
+
+  /**
+   * Edge reaching the node in the tree, null for the source and unreachable nodes
+   */
+  public Edge edgeTo(int node) {
+    int arc = treeArc[node];
+    return arc == -1 ? null : new Edge(arcFrom[arc], arcTo[arc], arcWeight[arc]);
+  }
+
+  /**
+   * Edges of the path from the source, or null if unreachable
+   */
+  public ArrayDeque<Edge> pathTo(int dest) {
+    if (distTo[dest] == INF) {
+      return null;
+    }
+    ArrayDeque<Edge> path = new ArrayDeque<Edge>();
+    for (Edge edge = edgeTo(dest); edge != null; edge = edgeTo(edge.from)) {
+      path.addFirst(edge);
+    }
+    return path;
+  }
+
+  /**
+   * Nodes whose distance or tree arc was recomputed by the last change
+   */
+  public int getLastAffected() {
+    return lastAffected;
+  }
+
+  public boolean isAlive(int arc) {
+    return alive[arc];
+  }
+
+  /**
+   * First arc from -> to still in the graph, -1 if none
+   *
+   * @time O(out degree)
+   */
+  public int findArc(int from, int to) {
+    for (int i = 0; i < outSize[from]; i++) {
+      if (arcTo[out[from][i]] == to) {
+        return out[from][i];
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return Id of the new arc
+   */
+  public int addDEdge(int from, int to, int weight) {
+    checkWeight(weight);
+    int arc = newArc(from, to, weight);
+    link(arc);
+    decreased(arc);
+    return arc;
+  }
+
+  /**
+   * @return Id of the arc from -> to, the one to -> from is the next id
+   */
+  public int addUEdge(int from, int to, int weight) {
+    int arc = addDEdge(from, to, weight);
+    addDEdge(to, from, weight);
+    return arc;
+  }
+
+  public void removeArc(int arc) {
+    if (!alive[arc]) {
+      throw new IllegalArgumentException("Arc " + arc + " was already removed");
+    }
+    alive[arc] = false;
+    unlink(out[arcFrom[arc]], outSize, arcFrom[arc], arc);
+    unlink(in[arcTo[arc]], inSize, arcTo[arc], arc);
+    lastAffected = 0;
+    if (treeArc[arcTo[arc]] == arc) {
+      increased(arcTo[arc]);
+    }
+  }
+
+  public void setWeight(int arc, int weight) {
+    if (!alive[arc]) {
+      throw new IllegalArgumentException("Arc " + arc + " was removed");
+    }
+    checkWeight(weight);
+    int old = arcWeight[arc];
+    arcWeight[arc] = weight;
+    lastAffected = 0;
+    if (weight < old) {
+      decreased(arc);
+    } else if (weight > old && treeArc[arcTo[arc]] == arc) {
+      increased(arcTo[arc]);
+    }
+  }
+
+  public int getWeight(int arc) {
+    return arcWeight[arc];
+  }
+
+  private static void checkWeight(int weight) {
+    if (weight < 0) {
+      throw new IllegalArgumentException("Negative weight " + weight);
+    }
+  }
+
+  private int newArc(int from, int to, int weight) {
+    if (numArcs == arcFrom.length) {
+      arcFrom = Arrays.copyOf(arcFrom, 2 * numArcs);
+      arcTo = Arrays.copyOf(arcTo, 2 * numArcs);
+      arcWeight = Arrays.copyOf(arcWeight, 2 * numArcs);
+      alive = Arrays.copyOf(alive, 2 * numArcs);
+    }
+    arcFrom[numArcs] = from;
+    arcTo[numArcs] = to;
+    arcWeight[numArcs] = weight;
+    alive[numArcs] = true;
+    return numArcs++;
+  }
+
+  private void link(int arc) {
+    int from = arcFrom[arc];
+    int to = arcTo[arc];
+    if (outSize[from] == out[from].length) {
+      out[from] = Arrays.copyOf(out[from], 2 * outSize[from]);
+    }
+    out[from][outSize[from]++] = arc;
+    if (inSize[to] == in[to].length) {
+      in[to] = Arrays.copyOf(in[to], 2 * inSize[to]);
+    }
+    in[to][inSize[to]++] = arc;
+  }
+
+  private static void unlink(int[] list, int[] size, int node, int arc) {
+    for (int i = 0; i < size[node]; i++) {
+      if (list[i] == arc) {
+        list[i] = list[--size[node]];
+        return;
+      }
+    }
+  }
+
+  /**
+   * The arc got cheaper (or was added): Dijkstra from its end over the nodes it improves
+   */
+  private void decreased(int arc) {
+    lastAffected = 0;
+    int from = arcFrom[arc];
+    int to = arcTo[arc];
+    if (distTo[from] == INF || distTo[from] + arcWeight[arc] >= distTo[to]) {
+      return;
+    }
+    distTo[to] = distTo[from] + arcWeight[arc];
+    treeArc[to] = arc;
+    relaxFrom(to);
+  }
+
+  /**
+   * Dijkstra from the node, whose distance was just lowered
+   */
+  private void relaxFrom(int start) {
+    queue.add(start, distTo[start]);
+    while (!queue.isEmpty()) {
+      int cur = queue.poll();
+      lastAffected++;
+      for (int i = 0; i < outSize[cur]; i++) {
+        int arc = out[cur][i];
+        int next = arcTo[arc];
+        if (distTo[cur] + arcWeight[arc] < distTo[next]) {
+          distTo[next] = distTo[cur] + arcWeight[arc];
+          treeArc[next] = arc;
+          queue.addOrDecrease(next, distTo[next]);
+        }
+      }
+    }
+  }
+
+  /**
+   * The tree arc reaching root got more expensive (or was removed): recomputes the subtree
+   */
+  private void increased(int root) {
+    updates++;
+    int size = 0;
+    subtree[size++] = root;
+    inSubtree[root] = updates;
+    for (int i = 0; i < size; i++) {
+      int cur = subtree[i];
+      for (int j = 0; j < outSize[cur]; j++) {
+        int arc = out[cur][j];
+        int next = arcTo[arc];
+        if (treeArc[next] == arc && inSubtree[next] != updates) {
+          inSubtree[next] = updates;
+          if (size == subtree.length) {
+            subtree = Arrays.copyOf(subtree, 2 * size);
+          }
+          subtree[size++] = next;
+        }
+      }
+    }
+    lastAffected = size;
+
+    for (int i = 0; i < size; i++) {
+      distTo[subtree[i]] = INF;
+      treeArc[subtree[i]] = -1;
+    }
+    for (int i = 0; i < size; i++) { // Best way into the subtree from the rest of the tree
+      int cur = subtree[i];
+      for (int j = 0; j < inSize[cur]; j++) {
+        int arc = in[cur][j];
+        int prev = arcFrom[arc];
+        if (inSubtree[prev] != updates && distTo[prev] != INF
+            && distTo[prev] + arcWeight[arc] < distTo[cur]) {
+          distTo[cur] = distTo[prev] + arcWeight[arc];
+          treeArc[cur] = arc;
+        }
+      }
+      if (distTo[cur] != INF) {
+        queue.add(cur, distTo[cur]);
+      }
+    }
+    while (!queue.isEmpty()) { // Dijkstra inside the subtree, the rest can't improve
+      int cur = queue.poll();
+      for (int j = 0; j < outSize[cur]; j++) {
+        int arc = out[cur][j];
+        int next = arcTo[arc];
+        if (inSubtree[next] == updates && distTo[cur] + arcWeight[arc] < distTo[next]) {
+          distTo[next] = distTo[cur] + arcWeight[arc];
+          treeArc[next] = arc;
+          queue.addOrDecrease(next, distTo[next]);
+        }
+      }
+    }
+  }
+
+}
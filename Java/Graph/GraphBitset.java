@@ -0,0 +1,117 @@
+package Graph;
+
+/**
+ * Graph class with unweighted edges stored as an adjacency matrix of bits. Row <code>node</code>
+ * is the <code>words</code> longs starting at <code>adj[node * words]</code>, so algorithms can
+ * process 64 neighbors with a single operation. Meant for dense graphs: it uses |V|^2 / 8 bytes
+ * whatever the number of edges (about 312MB for 50000 nodes), and parallel edges are merged.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class GraphBitset {
+  static final int MAX_WORDS = Integer.MAX_VALUE - 8; // Largest long[] the JVM allocates
+
+  private final int numVertices;
+  private int numEdges = 0;
+  final int words; // Longs per row
+  final long[] adj;
+
+  /**
+   * @throws IllegalArgumentException
+   *           if the matrix doesn't fit in one long[] (more than about 370000 nodes), so every
+   *           <code>node * words</code> index fits in an int
+   */
+  public GraphBitset(int numVertices) {
+    this.numVertices = numVertices;
+    this.words = (numVertices + 63) >>> 6;
+    if ((long) numVertices * words > MAX_WORDS) {
+      throw new IllegalArgumentException("Too many nodes for an adjacency matrix: " + numVertices);
+    }
+    this.adj = new long[numVertices * words];
+  }
+
+  /**
+   * @time O(|V| + |E|) plus the O(|V|^2 / 64) initialization
+   */
+  public GraphBitset(GraphCSR graph) {
+    this(graph.getNumVertices());
+    for (int node = 0; node < numVertices; node++) {
+      for (int arc = graph.offsets[node]; arc < graph.offsets[node + 1]; arc++) {
+        setBit(node, graph.targets[arc]);
+      }
+    }
+    numEdges = graph.getNumEdges();
+  }
+
+  public int getNumVertices() {
+    return numVertices;
+  }
+
+  public int getNumEdges() {
+    return numEdges;
+  }
+
+  public void addDirectedEdge(int from, int to) {
+    setBit(from, to);
+    numEdges++;
+  }
+
+  public void addUndirectedEdge(int from, int to) {
+    setBit(from, to);
+    setBit(to, from);
+    numEdges++;
+  }
+
+  private void setBit(int from, int to) {
+    adj[from * words + (to >>> 6)] |= 1L << to;
+  }
+
+  public boolean hasEdge(int from, int to) {
+    return (adj[from * words + (to >>> 6)] & (1L << to)) != 0;
+  }
+
+  /**
+   * @time O(|V| / 64)
+   */
+  public int degree(int node) {
+    int degree = 0;
+    for (int w = node * words; w < (node + 1) * words; w++) {
+      degree += Long.bitCount(adj[w]);
+    }
+    return degree;
+  }
+
+  /**
+   * Bitset with the bits of all the nodes set, used as the initial set of unvisited nodes
+   */
+  long[] allNodes() {
+    long[] all = new long[words];
+    for (int w = 0; w < words; w++) {
+      all[w] = -1L;
+    }
+    if ((numVertices & 63) != 0) {
+      all[words - 1] = (1L << numVertices) - 1;
+    }
+    return all;
+  }
+
+  public String toString() {
+    StringBuilder sb = new StringBuilder(numVertices + numEdges);
+    sb.append("Nodes: " + numVertices + " Edges: " + numEdges + "\n");
+    for (int i = 0; i < numVertices; i++) {
+      sb.append(i + " -> [");
+      boolean first = true;
+      for (int w = 0; w < words; w++) {
+        for (long bits = adj[i * words + w]; bits != 0; bits &= bits - 1) {
+          if (!first)
+            sb.append(", ");
+          sb.append((w << 6) + Long.numberOfTrailingZeros(bits));
+          first = false;
+        }
+      }
+      sb.append("]\n");
+    }
+    return sb.toString();
+  }
+
+}
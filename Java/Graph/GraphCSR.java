@@ -0,0 +1,169 @@
+package Graph;
+
+import java.util.Arrays;
+
+/**
+ * Immutable graph class with unweighted edges stored in Compressed Sparse Row format. The neighbors
+ * of a node are <code>targets[offsets[node]] ... targets[offsets[node + 1] - 1]</code>, so
+ * iterating over them neither allocates nor unboxes. Build it from a {@link Graph} or with a
+ * {@link Builder}.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class GraphCSR {
+  private final int numVertices;
+  private final int numEdges;
+  final int[] offsets; // Size |V| + 1
+  final int[] targets; // Size equal to the number of arcs
+
+  GraphCSR(int numVertices, int numEdges, int[] offsets, int[] targets) {
+    this.numVertices = numVertices;
+    this.numEdges = numEdges;
+    this.offsets = offsets;
+    this.targets = targets;
+  }
+
+  /**
+   * Freezes the given graph keeping the order of the adjacency lists
+   *
+   * @time O(|V| + |E|)
+   */
+  public GraphCSR(Graph graph) {
+    this.numVertices = graph.getNumVertices();
+    this.numEdges = graph.getNumEdges();
+    this.offsets = new int[numVertices + 1];
+    for (int node = 0; node < numVertices; node++) {
+      offsets[node + 1] = offsets[node] + graph.getAdjacent(node).size();
+    }
+    this.targets = new int[offsets[numVertices]];
+    int arc = 0;
+    for (int node = 0; node < numVertices; node++) {
+      for (int next : graph.getAdjacent(node)) {
+        targets[arc++] = next;
+      }
+    }
+  }
+
+  public int getNumVertices() {
+    return numVertices;
+  }
+
+  /**
+   * Number of edges added, undirected edges count once as in {@link Graph}
+   */
+  public int getNumEdges() {
+    return numEdges;
+  }
+
+  /**
+   * Number of stored arcs, undirected edges count twice (except self-loops)
+   */
+  public int getNumArcs() {
+    return targets.length;
+  }
+
+  /**
+   * First arc of the node. Iterate with
+   * <code>for (int arc = start(node); arc < end(node); arc++)</code>
+   */
+  public int start(int node) {
+    return offsets[node];
+  }
+
+  public int end(int node) {
+    return offsets[node + 1];
+  }
+
+  public int target(int arc) {
+    return targets[arc];
+  }
+
+  public int degree(int node) {
+    return offsets[node + 1] - offsets[node];
+  }
+
+  /**
+   * Copy of the neighbors of the node. Prefer iterating with start/end in hot loops.
+   */
+  public int[] getAdjacent(int node) {
+    return Arrays.copyOfRange(targets, offsets[node], offsets[node + 1]);
+  }
+
+  public String toString() {
+    StringBuilder sb = new StringBuilder(numVertices + numEdges);
+    sb.append("Nodes: " + numVertices + " Edges: " + numEdges + "\n");
+    for (int i = 0; i < numVertices; i++) {
+      sb.append(i + " -> " + Arrays.toString(getAdjacent(i)) + "\n");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Collects the edges in two growing int arrays and sorts them by source with a counting sort.
+   * Adjacency lists keep the insertion order, like in {@link Graph}.
+   */
+  static class Builder {
+    private final int numVertices;
+    private int numEdges = 0;
+    private int numArcs = 0;
+    private int[] from;
+    private int[] to;
+
+    public Builder(int numVertices) {
+      this(numVertices, 16);
+    }
+
+    public Builder(int numVertices, int expectedArcs) {
+      this.numVertices = numVertices;
+      from = new int[Math.max(expectedArcs, 1)];
+      to = new int[Math.max(expectedArcs, 1)];
+    }
+
+    public int getNumVertices() {
+      return numVertices;
+    }
+
+    public void addDirectedEdge(int from, int to) {
+      addArc(from, to);
+      numEdges++;
+    }
+
+    public void addUndirectedEdge(int from, int to) {
+      addArc(from, to);
+      if (from != to) {
+        addArc(to, from);
+      }
+      numEdges++;
+    }
+
+    private void addArc(int u, int v) {
+      if (numArcs == from.length) {
+        from = Arrays.copyOf(from, 2 * numArcs);
+        to = Arrays.copyOf(to, 2 * numArcs);
+      }
+      from[numArcs] = u;
+      to[numArcs] = v;
+      numArcs++;
+    }
+
+    /**
+     * @time O(|V| + |E|)
+     */
+    public GraphCSR build() {
+      int[] offsets = new int[numVertices + 1];
+      for (int i = 0; i < numArcs; i++) {
+        offsets[from[i] + 1]++;
+      }
+      for (int node = 0; node < numVertices; node++) {
+        offsets[node + 1] += offsets[node];
+      }
+      int[] pos = Arrays.copyOf(offsets, numVertices);
+      int[] targets = new int[numArcs];
+      for (int i = 0; i < numArcs; i++) {
+        targets[pos[from[i]]++] = to[i];
+      }
+      return new GraphCSR(numVertices, numEdges, offsets, targets);
+    }
+  }
+
+}
@@ -0,0 +1,298 @@
+package Graph;
+
+import java.util.Arrays;
+
+/**
+ * Immutable graph class with unweighted edges whose sorted adjacency lists are stored as
+ * varint-encoded gaps in byte arrays. Each list is the degree, the first neighbor relative to the
+ * node (zigzag encoded, as it can be lower) and then the differences between consecutive neighbors,
+ * each one using 7 bits per byte. Neighbors tend to be close to each other (more so after a
+ * {@link VertexOrdering}), so most gaps take one byte instead of four. The bytes are split in
+ * chunks of up to 2^CHUNK_BITS bytes (a list never spans two chunks) so the graph can exceed 2GB.
+ *
+ * Iterate over the neighbors with a {@link NeighborIterator}, which decodes them on the fly without
+ * allocating.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class GraphCompressed {
+  static final int CHUNK_BITS = 30;
+
+  private final int numVertices;
+  private final int numEdges;
+  private final long numArcs;
+  private final byte[][] chunks;
+  private final long[] pointers; // (chunk << 32) | position of the list of each node
+
+  /**
+   * Convenience constructor from a graph already in memory. Use a {@link Builder} (or
+   * GraphLoader.loadCompressedGraph()) for graphs whose CSR doesn't fit in memory.
+   *
+   * @time O(|V| + |E| log |E|)
+   */
+  public GraphCompressed(GraphCSR graph) {
+    Builder builder = new Builder(graph.getNumVertices());
+    for (int node = 0; node < graph.getNumVertices(); node++) {
+      builder.addList(node, graph.targets, graph.offsets[node], graph.degree(node));
+    }
+    GraphCompressed built = builder.build(graph.getNumEdges());
+    this.numVertices = built.numVertices;
+    this.numEdges = built.numEdges;
+    this.numArcs = built.numArcs;
+    this.chunks = built.chunks;
+    this.pointers = built.pointers;
+  }
+
+  private GraphCompressed(int numVertices, int numEdges, long numArcs, byte[][] chunks,
+      long[] pointers) {
+    this.numVertices = numVertices;
+    this.numEdges = numEdges;
+    this.numArcs = numArcs;
+    this.chunks = chunks;
+    this.pointers = pointers;
+  }
+
+  /**
+   * Encodes the adjacency lists as they are given, node by node, so only the compressed graph is
+   * ever in memory. The lists are added in increasing order of node, and the nodes skipped have
+   * no neighbors.
+   */
+  static class Builder {
+    private final int numVertices;
+    private final long[] pointers;
+    private int nextNode = 0;
+    private long numArcs = 0;
+    private byte[][] chunks = new byte[1][];
+    private int numChunks = 0;
+    private byte[] chunk = new byte[1024];
+    private int chunkSize = 0;
+    private byte[] list = new byte[16];
+    private int[] sorted = new int[16];
+
+    public Builder(int numVertices) {
+      this.numVertices = numVertices;
+      this.pointers = new long[numVertices];
+    }
+
+    /**
+     * Adds the list of the node, neighbors[start, start + degree) in any order
+     *
+     * @time O(degree log degree)
+     */
+    public void addList(int node, int[] neighbors, int start, int degree) {
+      if (node < nextNode || node >= numVertices) {
+        throw new IllegalArgumentException("List of node " + node + " added after node "
+            + (nextNode - 1));
+      }
+      while (nextNode < node) {
+        append(nextNode++, 0);
+      }
+      if (sorted.length < degree) {
+        sorted = new int[Math.max(degree, 2 * sorted.length)];
+      }
+      System.arraycopy(neighbors, start, sorted, 0, degree);
+      Arrays.sort(sorted, 0, degree);
+      append(nextNode++, degree);
+    }
+
+    /**
+     * Encodes the first degree values of sorted as the list of the node
+     */
+    private void append(int node, int degree) {
+      if (list.length < 5 * (degree + 2)) { // At most 5 bytes per value
+        list = new byte[5 * (degree + 2)];
+      }
+      int size = writeVarint(list, 0, degree);
+      int prev = node;
+      for (int i = 0; i < degree; i++) {
+        int value = i == 0 ? zigzag(sorted[i] - node) : sorted[i] - prev;
+        size = writeVarint(list, size, value);
+        prev = sorted[i];
+      }
+      numArcs += degree;
+
+      if ((long) chunkSize + size > 1L << CHUNK_BITS) { // Close the chunk
+        closeChunk();
+      }
+      if (chunk.length < chunkSize + size) {
+        long newLength = Math.max(2L * chunk.length, (long) chunkSize + size);
+        chunk = Arrays.copyOf(chunk, (int) Math.min(newLength, 1L << CHUNK_BITS));
+      }
+      System.arraycopy(list, 0, chunk, chunkSize, size);
+      pointers[node] = ((long) numChunks << 32) | chunkSize;
+      chunkSize += size;
+    }
+
+    private void closeChunk() {
+      if (numChunks == chunks.length) {
+        chunks = Arrays.copyOf(chunks, 2 * numChunks);
+      }
+      chunks[numChunks++] = Arrays.copyOf(chunk, chunkSize);
+      chunkSize = 0;
+    }
+
+    /**
+     * @param numEdges
+     *          Edges the lists stand for (half the arcs in an undirected graph)
+     */
+    public GraphCompressed build(int numEdges) {
+      while (nextNode < numVertices) {
+        append(nextNode++, 0);
+      }
+      closeChunk();
+      return new GraphCompressed(numVertices, numEdges, numArcs, Arrays.copyOf(chunks, numChunks),
+          pointers);
+    }
+  }
+
+  private static int writeVarint(byte[] buffer, int pos, int value) {
+    while ((value & ~0x7F) != 0) {
+      buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[pos++] = (byte) value;
+    return pos;
+  }
+
+  private static int zigzag(int value) {
+    return (value << 1) ^ (value >> 31);
+  }
+
+  private static int unzigzag(int value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  public int getNumVertices() {
+    return numVertices;
+  }
+
+  public int getNumEdges() {
+    return numEdges;
+  }
+
+  public long getNumArcs() {
+    return numArcs;
+  }
+
+  /**
+   * Bytes used by the encoded adjacency lists
+   */
+  public long getEncodedSize() {
+    long size = 0;
+    for (byte[] chunk : chunks) {
+      size += chunk.length;
+    }
+    return size;
+  }
+
+  public NeighborIterator iterator() {
+    return new NeighborIterator(this);
+  }
+
+  public String toString() {
+    StringBuilder sb = new StringBuilder(numVertices + numEdges);
+    sb.append("Nodes: " + numVertices + " Edges: " + numEdges + "\n");
+    NeighborIterator it = iterator();
+    for (int i = 0; i < numVertices; i++) {
+      sb.append(i + " -> [");
+      for (it.reset(i); it.hasNext();) {
+        sb.append(it.next());
+        if (it.hasNext())
+          sb.append(", ");
+      }
+      sb.append("]\n");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Reusable decoder of the sorted neighbors of a node. One instance per thread; reset() it for
+   * each node. The decoding state can be saved and restored to interleave several lists, as a
+   * DFS does.
+   */
+  static class NeighborIterator {
+    private final GraphCompressed graph;
+    private byte[] chunk;
+    private int chunkIndex;
+    private int pos;
+    private int remaining;
+    private int prev;
+    private boolean first;
+
+    NeighborIterator(GraphCompressed graph) {
+      this.graph = graph;
+    }
+
+    public void reset(int node) {
+      long pointer = graph.pointers[node];
+      chunkIndex = (int) (pointer >>> 32);
+      chunk = graph.chunks[chunkIndex];
+      pos = (int) pointer;
+      remaining = readVarint();
+      prev = node;
+      first = true;
+    }
+
+    public boolean hasNext() {
+      return remaining > 0;
+    }
+
+    public int next() {
+      int value = readVarint();
+      remaining--;
+      if (first) {
+        first = false;
+        prev += unzigzag(value);
+      } else {
+        prev += value;
+      }
+      return prev;
+    }
+
+    private int readVarint() {
+      byte b = chunk[pos++];
+      if (b >= 0) { // Most gaps take a single byte
+        return b;
+      }
+      int value = b & 0x7F;
+      for (int shift = 7;; shift += 7) {
+        b = chunk[pos++];
+        value |= (b & 0x7F) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+    }
+
+    /**
+     * Position of the next neighbor, to be given back to restore()
+     */
+    public long position() {
+      return ((long) chunkIndex << 32) | pos;
+    }
+
+    /**
+     * Last neighbor returned, or the node if none was returned yet
+     */
+    public int previous() {
+      return first ? ~prev : prev;
+    }
+
+    public int remaining() {
+      return remaining;
+    }
+
+    /**
+     * Continues a list saved with position(), previous() and remaining()
+     */
+    public void restore(long position, int previous, int remaining) {
+      chunkIndex = (int) (position >>> 32);
+      chunk = graph.chunks[chunkIndex];
+      pos = (int) position;
+      first = previous < 0;
+      prev = first ? ~previous : previous;
+      this.remaining = remaining;
+    }
+  }
+
+}
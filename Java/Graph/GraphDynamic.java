@@ -0,0 +1,417 @@
+package Graph;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Weighted directed graph that supports inserting and deleting edges on top of an immutable
+ * {@link GraphWeightedCSR} base. Updates are appended to a log (inserted arcs and deletions) and
+ * every update publishes a new immutable {@link Snapshot}, which is the base plus the first
+ * entries of the log, so readers always see a consistent graph without locking while a single
+ * writer at a time modifies it. Each update costs O(1) or O(outdegree) for deletions, not O(|E|).
+ * When the log grows over a fraction of the base it is merged into a new base in the background,
+ * and the updates done meanwhile are replayed on top of it.
+ *
+ * Deleting from -> to removes all the arcs from -> to present at that moment. As in the other
+ * graphs an undirected edge counts once in the number of edges and twice in the number of arcs.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class GraphDynamic {
+
+  static final int MIN_COMPACT_DELTA = 1 << 10;
+  static final int COMPACT_FRACTION = 8; // Compact when the delta exceeds base arcs / 8
+
+  private final Executor executor;
+  private volatile Snapshot current;
+  private Log log;
+  private final Arcs removed = new Arcs(); // Used by the writer to count the edges it removes
+
+  // Background compaction running, replaying on its new base the entries appended meanwhile
+  private boolean compacting = false;
+  private int compactionId = 0;
+
+  public GraphDynamic(GraphWeightedCSR base) {
+    this(base, null);
+  }
+
+  /**
+   * @param executor
+   *          Runs the background compactions. If <code>null</code> a daemon thread is started for
+   *          each one.
+   */
+  public GraphDynamic(GraphWeightedCSR base, Executor executor) {
+    this.executor = executor;
+    this.log = new Log(base.getNumVertices());
+    this.current = new Snapshot(base, 0, base.getNumEdges(), log, 0);
+  }
+
+  public int getNumVertices() {
+    return current.base.getNumVertices();
+  }
+
+  public int getNumEdges() {
+    return current.numEdges;
+  }
+
+  /**
+   * Consistent view of the graph that is never modified afterwards
+   */
+  public Snapshot snapshot() {
+    return current;
+  }
+
+  /**
+   * @time O(1) amortized
+   */
+  public synchronized void addDEdge(int from, int to, int weight) {
+    log.append(from, to, weight, true);
+    publish(1, 1);
+  }
+
+  /**
+   * Both arcs become visible at the same time
+   *
+   * @time O(1) amortized
+   */
+  public synchronized void addUEdge(int from, int to, int weight) {
+    log.append(from, to, weight, true);
+    log.append(to, from, weight, true);
+    publish(2, 1);
+  }
+
+  /**
+   * Removes all the arcs from -> to
+   *
+   * @time O(outdegree(from) + u log u) for u updates of from
+   */
+  public synchronized void removeDEdge(int from, int to) {
+    int edges = countArcs(from, to);
+    log.append(from, to, 0, false);
+    publish(1, -edges);
+  }
+
+  /**
+   * Removes all the arcs from -> to and to -> from at the same time, each of the edges removed
+   * being one arc in each direction
+   *
+   * @time O(outdegree(from) + u log u) for u updates of from
+   */
+  public synchronized void removeUEdge(int from, int to) {
+    int edges = from == to ? countArcs(from, to) / 2 : countArcs(from, to);
+    log.append(from, to, 0, false);
+    log.append(to, from, 0, false);
+    publish(2, -edges);
+  }
+
+  private int countArcs(int from, int to) {
+    current.arcs(from, removed);
+    int count = 0;
+    for (int i = 0; i < removed.size; i++) {
+      if (removed.to[i] == to) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Merges the delta into a new base in the calling thread. A background compaction running at
+   * the same time is discarded.
+   *
+   * @time O(|V| + |E| + delta log delta)
+   */
+  public synchronized void compact() {
+    compactionId++;
+    compacting = false;
+    Snapshot snapshot = current;
+    log = new Log(snapshot.getNumVertices());
+    current = new Snapshot(snapshot.compact(), snapshot.version, snapshot.numEdges, log, 0);
+  }
+
+  /**
+   * Makes the entries just appended visible to the readers as a new snapshot, and starts a
+   * compaction if the delta is too big
+   */
+  private void publish(int updates, int edges) {
+    final Snapshot snapshot = new Snapshot(current.base, current.version + updates,
+        current.numEdges + edges, log, log.size);
+    current = snapshot;
+    int threshold = Math.max(MIN_COMPACT_DELTA, snapshot.base.getNumArcs() / COMPACT_FRACTION);
+    if (compacting || snapshot.deltaSize() <= threshold) {
+      return;
+    }
+    compacting = true;
+    final int id = ++compactionId;
+    Runnable task = new Runnable() {
+      public void run() {
+        finishCompaction(snapshot.compact(), snapshot, id);
+      }
+    };
+    if (executor != null) {
+      executor.execute(task);
+    } else {
+      Thread thread = new Thread(task, "GraphDynamic compaction");
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  /**
+   * Installs the new base with a new log holding the entries appended since the compacted
+   * snapshot
+   */
+  private synchronized void finishCompaction(GraphWeightedCSR base, Snapshot compacted, int id) {
+    if (id != compactionId) {
+      return; // Superseded by a call to compact()
+    }
+    Log old = compacted.log;
+    Log replayed = new Log(base.getNumVertices());
+    for (int entry = compacted.logLength; entry < old.size; entry++) {
+      int[] chunk = old.chunk(entry);
+      int at = Log.offset(entry);
+      replayed.append(chunk[at + Log.FROM], chunk[at + Log.TO], chunk[at + Log.WEIGHT],
+          chunk[at + Log.INSERT] != 0);
+    }
+    log = replayed;
+    current = new Snapshot(base, current.version, current.numEdges, log, log.size);
+    compacting = false;
+  }
+
+  /**
+   * Append-only list of the updates since the base was built, shared by the snapshots of that
+   * base, each one reading only the entries before its logLength. The entries are stored in
+   * chunks that are never moved, and the entries of each node are linked from the newest one, so a
+   * reader walks the updates of a node without searching the whole log. The writer fills an entry
+   * before publishing it in last[] (a volatile write), and readers read last[] before the entries.
+   */
+  private static class Log {
+    static final int CHUNK_BITS = 10;
+    static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+    static final int FROM = 0, TO = 1, WEIGHT = 2, INSERT = 3, PREV = 4, STRIDE = 5;
+
+    private volatile int[][] chunks = new int[4][];
+    private final AtomicIntegerArray last; // Newest entry of each node, -1 if none
+    private int size = 0; // Written by the writer only
+
+    Log(int numVertices) {
+      last = new AtomicIntegerArray(numVertices);
+      for (int node = 0; node < numVertices; node++) {
+        last.set(node, -1);
+      }
+    }
+
+    void append(int from, int to, int weight, boolean insert) {
+      int c = size >>> CHUNK_BITS;
+      if (c == chunks.length) {
+        chunks = Arrays.copyOf(chunks, 2 * c);
+      }
+      if (chunks[c] == null) {
+        chunks[c] = new int[STRIDE << CHUNK_BITS];
+      }
+      int at = offset(size);
+      int[] chunk = chunks[c];
+      chunk[at + FROM] = from;
+      chunk[at + TO] = to;
+      chunk[at + WEIGHT] = weight;
+      chunk[at + INSERT] = insert ? 1 : 0;
+      chunk[at + PREV] = last.get(from);
+      last.set(from, size++);
+    }
+
+    int[] chunk(int entry) {
+      return chunks[entry >>> CHUNK_BITS];
+    }
+
+    static int offset(int entry) {
+      return (entry & CHUNK_MASK) * STRIDE;
+    }
+  }
+
+  /**
+   * Immutable view of the graph: the arcs of the base that are not deleted plus the inserted arcs.
+   * The arcs leaving a node are read into a reusable {@link Arcs} buffer:
+   *
+   * <pre>
+   * s.arcs(node, arcs);
+   * for (int i = 0; i &lt; arcs.size(); i++)
+   *   ... arcs.to(i), arcs.weight(i)
+   * </pre>
+   */
+  static class Snapshot {
+    final GraphWeightedCSR base;
+    final long version; // Number of updates applied since the graph was created
+    private final int numEdges;
+    private final Log log;
+    private final int logLength; // Entries of the log visible in this snapshot
+
+    private Snapshot(GraphWeightedCSR base, long version, int numEdges, Log log, int logLength) {
+      this.base = base;
+      this.version = version;
+      this.numEdges = numEdges;
+      this.log = log;
+      this.logLength = logLength;
+    }
+
+    public int getNumVertices() {
+      return base.getNumVertices();
+    }
+
+    public int getNumEdges() {
+      return numEdges;
+    }
+
+    /**
+     * Updates on top of the base
+     */
+    public int deltaSize() {
+      return logLength;
+    }
+
+    /**
+     * Fills arcs with the arcs leaving the node: the inserted ones in insertion order followed by
+     * the base ones. Entries appended after this snapshot are skipped, which costs a bit more the
+     * more the node has been updated since.
+     *
+     * @time O(outdegree(node) + u log u) for u updates of the node
+     */
+    public void arcs(int node, Arcs arcs) {
+      arcs.size = 0;
+      arcs.numDeleted = 0;
+      int entry = log.last.get(node);
+      if (entry != -1) {
+        int[][] chunks = log.chunks;
+        while (entry != -1) { // From the newest to the oldest update
+          int[] chunk = chunks[entry >>> Log.CHUNK_BITS];
+          int at = Log.offset(entry);
+          if (entry < logLength) {
+            if (chunk[at + Log.INSERT] != 0) {
+              arcs.add(chunk[at + Log.TO], chunk[at + Log.WEIGHT], entry);
+            } else {
+              arcs.addDeleted(chunk[at + Log.TO], entry);
+            }
+          }
+          entry = chunk[at + Log.PREV];
+        }
+        arcs.dropDeleted();
+      }
+      for (int arc = base.start(node); arc < base.end(node); arc++) {
+        if (arcs.numDeleted == 0 || !arcs.isDeleted(base.to(arc))) {
+          arcs.add(base.to(arc), base.weight(arc), -1);
+        }
+      }
+    }
+
+    /**
+     * Builds a new base with the delta applied
+     *
+     * @time O(|V| + |E| + delta log delta)
+     */
+    public GraphWeightedCSR compact() {
+      int numVertices = base.getNumVertices();
+      Arcs arcs = new Arcs();
+      int[] offsets = new int[numVertices + 1];
+      for (int node = 0; node < numVertices; node++) {
+        arcs(node, arcs);
+        offsets[node + 1] = offsets[node] + arcs.size;
+      }
+      int[] to = new int[offsets[numVertices]];
+      int[] weight = new int[offsets[numVertices]];
+      for (int node = 0; node < numVertices; node++) {
+        arcs(node, arcs);
+        System.arraycopy(arcs.to, 0, to, offsets[node], arcs.size);
+        System.arraycopy(arcs.weight, 0, weight, offsets[node], arcs.size);
+      }
+      return new GraphWeightedCSR(numVertices, numEdges, offsets, to, weight);
+    }
+  }
+
+  /**
+   * Buffer with the arcs leaving one node of a snapshot, reused from node to node. Not
+   * thread-safe: each reader uses its own.
+   */
+  static class Arcs {
+    private int size = 0;
+    private int[] to = new int[16];
+    private int[] weight = new int[16];
+    private int[] entry = new int[16]; // Log entry that inserted the arc, -1 for the base ones
+    private int numDeleted = 0;
+    private long[] deleted = new long[16]; // Deletions of the node as (to << 32 | entry)
+
+    public int size() {
+      return size;
+    }
+
+    public int to(int i) {
+      return to[i];
+    }
+
+    public int weight(int i) {
+      return weight[i];
+    }
+
+    private void add(int target, int arcWeight, int logEntry) {
+      if (size == to.length) {
+        to = Arrays.copyOf(to, 2 * size);
+        weight = Arrays.copyOf(weight, 2 * size);
+        entry = Arrays.copyOf(entry, 2 * size);
+      }
+      to[size] = target;
+      weight[size] = arcWeight;
+      entry[size++] = logEntry;
+    }
+
+    private void addDeleted(int target, int logEntry) {
+      if (numDeleted == deleted.length) {
+        deleted = Arrays.copyOf(deleted, 2 * numDeleted);
+      }
+      deleted[numDeleted++] = (long) target << 32 | logEntry;
+    }
+
+    /**
+     * Drops the inserted arcs deleted afterwards and puts the rest in insertion order (they were
+     * added from the newest)
+     */
+    private void dropDeleted() {
+      for (int i = 0, j = size - 1; i < j; i++, j--) {
+        swap(to, i, j);
+        swap(weight, i, j);
+        swap(entry, i, j);
+      }
+      if (numDeleted == 0) {
+        return;
+      }
+      Arrays.sort(deleted, 0, numDeleted);
+      int kept = 0;
+      for (int i = 0; i < size; i++) {
+        if (lastDeletion(to[i]) < entry[i]) {
+          to[kept] = to[i];
+          weight[kept] = weight[i];
+          entry[kept++] = entry[i];
+        }
+      }
+      size = kept;
+    }
+
+    private boolean isDeleted(int target) {
+      return lastDeletion(target) != -1;
+    }
+
+    /**
+     * Newest log entry deleting the target, -1 if none
+     */
+    private int lastDeletion(int target) {
+      long key = (long) target << 32 | Integer.MAX_VALUE; // Above every entry of the target
+      int pos = -Arrays.binarySearch(deleted, 0, numDeleted, key) - 2; // Last key below it
+      return pos >= 0 && (int) (deleted[pos] >>> 32) == target ? (int) deleted[pos] : -1;
+    }
+
+    private static void swap(int[] array, int i, int j) {
+      int aux = array[i];
+      array[i] = array[j];
+      array[j] = aux;
+    }
+  }
+
+}
@@ -0,0 +1,403 @@
+package Graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Loads an edge list straight into a frozen graph without boxing any edge. The input is the usual
+ * contest format: the number of nodes and edges followed by one edge per line
+ *
+ * <pre>
+ * |V| |E|
+ * from to [weight]
+ * ...
+ * </pre>
+ *
+ * Files are read twice: the first pass counts the degrees and the second one fills the
+ * preallocated CSR arrays, so the peak memory is the final graph plus the parse buffer. Streams
+ * (pipes, stdin) can't be read twice, so their edges are spilled into the primitive arrays of a
+ * builder and sorted afterwards.
+ *
+ * loadCompressedGraph() never holds the uncompressed graph: the arcs are sorted in runs that are
+ * spilled to temporary files and merged straight into a {@link GraphCompressed.Builder}.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class GraphLoader {
+
+  /**
+   * @param undirected
+   *          If <code>true</code> every edge is added in both directions, as addUndirectedEdge
+   * @time O(|V| + |E|)
+   */
+  static GraphCSR loadGraph(File file, boolean undirected) throws IOException {
+    EdgeReader in = new EdgeReader(new FileInputStream(file));
+    int numVertices;
+    int numEdges;
+    int[] offsets;
+    try {
+      numVertices = in.nextInt();
+      numEdges = in.nextInt();
+      offsets = new int[numVertices + 1];
+      for (int i = 0; i < numEdges; i++) {
+        int from = in.nextInt();
+        int to = in.nextInt();
+        offsets[from + 1]++;
+        if (undirected && from != to) {
+          offsets[to + 1]++;
+        }
+      }
+    } finally {
+      in.close();
+    }
+    for (int node = 0; node < numVertices; node++) {
+      offsets[node + 1] += offsets[node];
+    }
+
+    int[] pos = Arrays.copyOf(offsets, numVertices);
+    int[] targets = new int[offsets[numVertices]];
+    in = new EdgeReader(new FileInputStream(file));
+    try {
+      in.nextInt();
+      in.nextInt();
+      for (int i = 0; i < numEdges; i++) {
+        int from = in.nextInt();
+        int to = in.nextInt();
+        targets[pos[from]++] = to;
+        if (undirected && from != to) {
+          targets[pos[to]++] = from;
+        }
+      }
+    } finally {
+      in.close();
+    }
+    return new GraphCSR(numVertices, numEdges, offsets, targets);
+  }
+
+  /**
+   * Same as loadGraph(File, boolean) with a weight after every edge. As in addUEdge, undirected
+   * self-loops are stored twice.
+   *
+   * @time O(|V| + |E|)
+   */
+  static GraphWeightedCSR loadWeightedGraph(File file, boolean undirected) throws IOException {
+    EdgeReader in = new EdgeReader(new FileInputStream(file));
+    int numVertices;
+    int numEdges;
+    int[] offsets;
+    try {
+      numVertices = in.nextInt();
+      numEdges = in.nextInt();
+      offsets = new int[numVertices + 1];
+      for (int i = 0; i < numEdges; i++) {
+        int from = in.nextInt();
+        int to = in.nextInt();
+        in.nextInt();
+        offsets[from + 1]++;
+        if (undirected) {
+          offsets[to + 1]++;
+        }
+      }
+    } finally {
+      in.close();
+    }
+    for (int node = 0; node < numVertices; node++) {
+      offsets[node + 1] += offsets[node];
+    }
+
+    int[] pos = Arrays.copyOf(offsets, numVertices);
+    int[] to = new int[offsets[numVertices]];
+    int[] weight = new int[offsets[numVertices]];
+    in = new EdgeReader(new FileInputStream(file));
+    try {
+      in.nextInt();
+      in.nextInt();
+      for (int i = 0; i < numEdges; i++) {
+        int u = in.nextInt();
+        int v = in.nextInt();
+        int w = in.nextInt();
+        to[pos[u]] = v;
+        weight[pos[u]++] = w;
+        if (undirected) {
+          to[pos[v]] = u;
+          weight[pos[v]++] = w;
+        }
+      }
+    } finally {
+      in.close();
+    }
+    return new GraphWeightedCSR(numVertices, numEdges, offsets, to, weight);
+  }
+
+  /**
+   * Single pass version for streams that can't be reread. The stream is not closed.
+   *
+   * @time O(|V| + |E|)
+   */
+  static GraphCSR loadGraph(InputStream stream, boolean undirected) throws IOException {
+    EdgeReader in = new EdgeReader(stream);
+    int numVertices = in.nextInt();
+    int numEdges = in.nextInt();
+    GraphCSR.Builder builder = new GraphCSR.Builder(numVertices,
+            undirected ? 2 * numEdges : numEdges);
+    for (int i = 0; i < numEdges; i++) {
+      int from = in.nextInt();
+      int to = in.nextInt();
+      if (undirected) {
+        builder.addUndirectedEdge(from, to);
+      } else {
+        builder.addDirectedEdge(from, to);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Single pass version for streams that can't be reread. The stream is not closed.
+   *
+   * @time O(|V| + |E|)
+   */
+  static GraphWeightedCSR loadWeightedGraph(InputStream stream, boolean undirected)
+          throws IOException {
+    EdgeReader in = new EdgeReader(stream);
+    int numVertices = in.nextInt();
+    int numEdges = in.nextInt();
+    GraphWeightedCSR.Builder builder = new GraphWeightedCSR.Builder(numVertices,
+            undirected ? 2 * numEdges : numEdges);
+    for (int i = 0; i < numEdges; i++) {
+      int from = in.nextInt();
+      int to = in.nextInt();
+      int weight = in.nextInt();
+      if (undirected) {
+        builder.addUEdge(from, to, weight);
+      } else {
+        builder.addDEdge(from, to, weight);
+      }
+    }
+    return builder.build();
+  }
+
+  static final int RUN_ARCS = 1 << 22; // Arcs sorted in memory at a time, 32MB
+
+  /**
+   * Compressed graph from a file, see loadCompressedGraph(InputStream, boolean, int)
+   */
+  static GraphCompressed loadCompressedGraph(File file, boolean undirected) throws IOException {
+    InputStream stream = new FileInputStream(file);
+    try {
+      return loadCompressedGraph(stream, undirected, RUN_ARCS);
+    } finally {
+      stream.close();
+    }
+  }
+
+  /**
+   * Single pass external sort into a GraphCompressed: the arcs are read in runs of runArcs, each
+   * run is sorted and written to a temporary file, and the runs are merged by (from, to) to
+   * encode the lists node by node. The peak memory is the compressed graph plus one run. The
+   * stream is not closed.
+   *
+   * @time O(|V| + |E| log |E|), reading and writing the arcs once to disk
+   */
+  static GraphCompressed loadCompressedGraph(InputStream stream, boolean undirected, int runArcs)
+      throws IOException {
+    EdgeReader in = new EdgeReader(stream);
+    int numVertices = in.nextInt();
+    int numEdges = in.nextInt();
+    long[] run = new long[Math.max(2, runArcs)];
+    int runSize = 0;
+    ArrayList<File> runs = new ArrayList<File>();
+    try {
+      for (int i = 0; i < numEdges; i++) {
+        int from = in.nextInt();
+        int to = in.nextInt();
+        if (runSize + 2 > run.length) {
+          runs.add(spill(run, runSize));
+          runSize = 0;
+        }
+        run[runSize++] = arcKey(from, to);
+        if (undirected && from != to) {
+          run[runSize++] = arcKey(to, from);
+        }
+      }
+      Arrays.sort(run, 0, runSize);
+      GraphCompressed.Builder builder = new GraphCompressed.Builder(numVertices);
+      if (runs.isEmpty()) {
+        encode(builder, run, runSize);
+      } else {
+        runs.add(spill(run, runSize));
+        run = null;
+        merge(builder, runs);
+      }
+      return builder.build(numEdges);
+    } finally {
+      for (File file : runs) {
+        file.delete();
+      }
+    }
+  }
+
+  private static long arcKey(int from, int to) {
+    return ((long) from << 32) | (to & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Sorts the run and writes it to a new temporary file
+   */
+  private static File spill(long[] run, int size) throws IOException {
+    Arrays.sort(run, 0, size);
+    File file = File.createTempFile("arcs", ".run");
+    file.deleteOnExit();
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+        new FileOutputStream(file), 1 << 16));
+    try {
+      out.writeInt(size);
+      for (int i = 0; i < size; i++) {
+        out.writeLong(run[i]);
+      }
+    } finally {
+      out.close();
+    }
+    return file;
+  }
+
+  /**
+   * Gives the builder the lists of the sorted arcs in memory
+   */
+  private static void encode(GraphCompressed.Builder builder, long[] arcs, int size) {
+    int[] neighbors = new int[16];
+    for (int start = 0; start < size;) {
+      int node = (int) (arcs[start] >>> 32);
+      int end = start;
+      while (end < size && (int) (arcs[end] >>> 32) == node) {
+        end++;
+      }
+      if (neighbors.length < end - start) {
+        neighbors = new int[Math.max(end - start, 2 * neighbors.length)];
+      }
+      for (int i = start; i < end; i++) {
+        neighbors[i - start] = (int) arcs[i];
+      }
+      builder.addList(node, neighbors, 0, end - start);
+      start = end;
+    }
+  }
+
+  /**
+   * k-way merge of the sorted runs, with an IndexedDHeap of the runs keyed by their next arc
+   */
+  private static void merge(GraphCompressed.Builder builder, ArrayList<File> runs)
+      throws IOException {
+    int k = runs.size();
+    DataInputStream[] inputs = new DataInputStream[k];
+    int[] left = new int[k];
+    IndexedDHeap heads = new IndexedDHeap(k);
+    try {
+      for (int r = 0; r < k; r++) {
+        inputs[r] = new DataInputStream(new BufferedInputStream(
+            new FileInputStream(runs.get(r)), 1 << 16));
+        left[r] = inputs[r].readInt();
+        if (left[r]-- > 0) {
+          heads.add(r, inputs[r].readLong());
+        }
+      }
+      int[] neighbors = new int[16];
+      int degree = 0;
+      int node = -1;
+      while (!heads.isEmpty()) {
+        int r = heads.poll();
+        long arc = heads.priority(r);
+        if (left[r]-- > 0) {
+          heads.add(r, inputs[r].readLong());
+        }
+        if ((int) (arc >>> 32) != node) {
+          if (degree > 0) {
+            builder.addList(node, neighbors, 0, degree);
+          }
+          node = (int) (arc >>> 32);
+          degree = 0;
+        }
+        if (degree == neighbors.length) {
+          neighbors = Arrays.copyOf(neighbors, 2 * degree);
+        }
+        neighbors[degree++] = (int) arc;
+      }
+      if (degree > 0) {
+        builder.addList(node, neighbors, 0, degree);
+      }
+    } finally {
+      for (DataInputStream input : inputs) {
+        if (input != null) {
+          input.close();
+        }
+      }
+    }
+  }
+
+  /**
+   * Minimal version of Reader over any InputStream, with a bigger buffer as it is meant for files
+   */
+  static class EdgeReader {
+    final private int BUFFER_SIZE = 1 << 16;
+    private final InputStream stream;
+    private byte[] buffer;
+    private int bufferPointer, bytesRead;
+
+    public EdgeReader(InputStream stream) {
+      this.stream = stream;
+      buffer = new byte[BUFFER_SIZE];
+      bufferPointer = 0;
+      bytesRead = 0;
+    }
+
+    private byte read() throws IOException {
+      if (bufferPointer == bytesRead) {
+        bytesRead = stream.read(buffer, bufferPointer = 0, BUFFER_SIZE);
+        if (bytesRead == -1) {
+          throw new IOException("Unexpected end of the edge list");
+        }
+      }
+      return buffer[bufferPointer++];
+    }
+
+    public int nextInt() throws IOException {
+      byte c = read();
+      while (c <= ' ') {
+        c = read();
+      }
+      boolean neg = (c == '-');
+      if (neg) {
+        c = read();
+      }
+      int ret = 0;
+      do {
+        ret = ret * 10 + c - '0';
+        if (bufferPointer == bytesRead) { // Last number of the input might not end in a space
+          bytesRead = stream.read(buffer, bufferPointer = 0, BUFFER_SIZE);
+          if (bytesRead == -1) {
+            bytesRead = 0;
+            break;
+          }
+        }
+      } while ((c = buffer[bufferPointer++]) >= '0' && c <= '9');
+      if (neg) {
+        return -ret;
+      }
+      return ret;
+    }
+
+    public void close() throws IOException {
+      stream.close();
+    }
+  }
+
+}
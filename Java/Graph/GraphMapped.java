@@ -0,0 +1,219 @@
+package Graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only graph whose arrays live in a memory-mapped file instead of the heap. The file is
+ * written once from a frozen graph and later opened without any deserialization, so opening is
+ * O(1) and the heap used by the graph doesn't depend on its size. The format is a header followed
+ * by the int sections of a CSR graph:
+ *
+ * <pre>
+ * int MAGIC, int VERSION, int numVertices, int numEdges, int numArcs, int weighted (0 or 1)
+ * int[numVertices + 1] offsets
+ * int[numArcs] targets
+ * int[numArcs] weights (only if weighted)
+ * </pre>
+ *
+ * A single mapping can't exceed 2GB, so every section is mapped in chunks of 2^CHUNK_BITS ints.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class GraphMapped {
+  static final int MAGIC = 0x4A50434C; // "JPCL"
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 6 * 4;
+  static final int CHUNK_BITS = 28; // 1GB per mapping
+  static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+  private final int numVertices;
+  private final int numEdges;
+  private final int numArcs;
+  private final IntBuffer[] offsets;
+  private final IntBuffer[] targets;
+  private final IntBuffer[] weights; // null if the graph is unweighted
+
+  private GraphMapped(int numVertices, int numEdges, int numArcs, IntBuffer[] offsets,
+          IntBuffer[] targets, IntBuffer[] weights) {
+    this.numVertices = numVertices;
+    this.numEdges = numEdges;
+    this.numArcs = numArcs;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.weights = weights;
+  }
+
+  /**
+   * Maps the graph stored in the file. The file can be closed right after, the mapping stays valid
+   * until the object is garbage collected.
+   *
+   * @time O(1) (pages are loaded lazily by the OS)
+   */
+  public static GraphMapped open(File file) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = raf.getChannel();
+      ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+      if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+        throw new IOException("Not a graph file: " + file);
+      }
+      int numVertices = header.getInt();
+      int numEdges = header.getInt();
+      int numArcs = header.getInt();
+      boolean weighted = header.getInt() != 0;
+
+      long position = HEADER_BYTES;
+      IntBuffer[] offsets = map(channel, position, numVertices + 1);
+      position += 4L * (numVertices + 1);
+      IntBuffer[] targets = map(channel, position, numArcs);
+      position += 4L * numArcs;
+      IntBuffer[] weights = weighted ? map(channel, position, numArcs) : null;
+      return new GraphMapped(numVertices, numEdges, numArcs, offsets, targets, weights);
+    } finally {
+      raf.close();
+    }
+  }
+
+  private static IntBuffer[] map(FileChannel channel, long position, int length)
+      throws IOException {
+    IntBuffer[] chunks = new IntBuffer[(int) (((long) length + CHUNK_MASK) >>> CHUNK_BITS)];
+    for (int c = 0; c < chunks.length; c++) {
+      int size = Math.min(length - (c << CHUNK_BITS), 1 << CHUNK_BITS);
+      long chunkPosition = position + 4L * ((long) c << CHUNK_BITS);
+      chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, chunkPosition, 4L * size)
+          .asIntBuffer();
+    }
+    return chunks;
+  }
+
+  /**
+   * @time O(|V| + |E|)
+   */
+  public static void write(GraphCSR graph, File file) throws IOException {
+    write(file, graph.getNumVertices(), graph.getNumEdges(), graph.offsets, graph.targets, null);
+  }
+
+  /**
+   * @time O(|V| + |E|)
+   */
+  public static void write(GraphWeightedCSR graph, File file) throws IOException {
+    write(file, graph.getNumVertices(), graph.getNumEdges(), graph.offsets, graph.to, graph.weight);
+  }
+
+  private static void write(File file, int numVertices, int numEdges, int[] offsets, int[] targets,
+          int[] weights) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(file, "rw");
+    try {
+      raf.setLength(0);
+      FileChannel channel = raf.getChannel();
+      ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+      buffer.putInt(MAGIC).putInt(VERSION).putInt(numVertices).putInt(numEdges)
+              .putInt(targets.length).putInt(weights != null ? 1 : 0);
+      buffer = writeInts(channel, buffer, offsets);
+      buffer = writeInts(channel, buffer, targets);
+      if (weights != null) {
+        buffer = writeInts(channel, buffer, weights);
+      }
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } finally {
+      raf.close();
+    }
+  }
+
+  private static ByteBuffer writeInts(FileChannel channel, ByteBuffer buffer, int[] values)
+      throws IOException {
+    for (int i = 0; i < values.length; i++) {
+      if (buffer.remaining() < 4) {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        buffer.clear();
+      }
+      buffer.putInt(values[i]);
+    }
+    return buffer;
+  }
+
+  public int getNumVertices() {
+    return numVertices;
+  }
+
+  public int getNumEdges() {
+    return numEdges;
+  }
+
+  public int getNumArcs() {
+    return numArcs;
+  }
+
+  public boolean isWeighted() {
+    return weights != null;
+  }
+
+  /**
+   * First arc of the node. Iterate with
+   * <code>for (int arc = start(node); arc < end(node); arc++)</code>
+   */
+  public int start(int node) {
+    return offsets[node >>> CHUNK_BITS].get(node & CHUNK_MASK);
+  }
+
+  public int end(int node) {
+    return start(node + 1);
+  }
+
+  public int target(int arc) {
+    return targets[arc >>> CHUNK_BITS].get(arc & CHUNK_MASK);
+  }
+
+  /**
+   * Weight of the arc, 1 if the graph is unweighted
+   */
+  public int weight(int arc) {
+    return weights == null ? 1 : weights[arc >>> CHUNK_BITS].get(arc & CHUNK_MASK);
+  }
+
+  /**
+   * Node the arc leaves from
+   *
+   * @time O(log |V|)
+   */
+  public int from(int arc) {
+    int low = 0;
+    int high = numVertices - 1;
+    while (low < high) { // Last node whose first arc is <= arc
+      int mid = (low + high + 1) >>> 1;
+      if (start(mid) <= arc) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  public String toString() {
+    StringBuilder result = new StringBuilder();
+    result.append("Nodes: " + numVertices + " Edges: " + numEdges + "\n");
+    for (int act = 0; act < numVertices; act++) {
+      result.append(act + " -> ");
+      for (int arc = start(act); arc < end(act); arc++) {
+        if (arc != start(act))
+          result.append(", ");
+        result.append("(" + target(arc) + " <" + weight(arc) + ">)");
+      }
+      result.append('\n');
+    }
+    return result.toString();
+  }
+
+}
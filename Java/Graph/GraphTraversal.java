@@ -107,6 +107,427 @@ public class GraphTraversal {
     }
   }
 
+  /**
+   * Iterative DFS over a frozen graph. Uses a primitive stack, so no neighbor is boxed.
+   */
+  static void iterativeDfs(GraphCSR graph, int source) {
+    int[] offsets = graph.offsets;
+    int[] targets = graph.targets;
+    visited = new boolean[graph.getNumVertices()];
+    nodeTo = new int[graph.getNumVertices()];
+    int[] stack = new int[Math.max(graph.getNumVertices(), 1)];
+    int top = 0;
+    stack[top++] = source;
+
+    while (top > 0) {
+      int node = stack[--top];
+      if (visited[node]) {
+        continue;
+      }
+      visited[node] = true;
+      for (int arc = offsets[node]; arc < offsets[node + 1]; arc++) {
+        int next = targets[arc];
+        if (!visited[next]) {
+          if (top == stack.length) {
+            stack = Arrays.copyOf(stack, 2 * top);
+          }
+          stack[top++] = next;
+          nodeTo[next] = node;
+        }
+      }
+    }
+  }
+
+  /**
+   * BFS over a frozen graph. Every node enters the queue at most once so the queue is an int[]
+   * of size |V|.
+   */
+  static void bfs(GraphCSR graph, int source) {
+    int[] offsets = graph.offsets;
+    int[] targets = graph.targets;
+    visited = new boolean[graph.getNumVertices()];
+    nodeTo = new int[graph.getNumVertices()];
+    distTo = new int[graph.getNumVertices()];
+    int[] queue = new int[graph.getNumVertices()];
+    int head = 0;
+    int tail = 0;
+
+    Arrays.fill(distTo, -1);
+    distTo[source] = 0;
+    visited[source] = true;
+    queue[tail++] = source;
+
+    while (head < tail) {
+      int node = queue[head++];
+      for (int arc = offsets[node]; arc < offsets[node + 1]; arc++) {
+        int next = targets[arc];
+        if (!visited[next]) {
+          visited[next] = true;
+          nodeTo[next] = node;
+          distTo[next] = distTo[node] + 1;
+          queue[tail++] = next;
+        }
+      }
+    }
+  }
+
+  /**
+   * BFS reading the adjacency directly from the mapped file
+   */
+  static void bfs(GraphMapped graph, int source) {
+    visited = new boolean[graph.getNumVertices()];
+    nodeTo = new int[graph.getNumVertices()];
+    distTo = new int[graph.getNumVertices()];
+    int[] queue = new int[graph.getNumVertices()];
+    int head = 0;
+    int tail = 0;
+
+    Arrays.fill(distTo, -1);
+    distTo[source] = 0;
+    visited[source] = true;
+    queue[tail++] = source;
+
+    while (head < tail) {
+      int node = queue[head++];
+      int end = graph.end(node);
+      for (int arc = graph.start(node); arc < end; arc++) {
+        int next = graph.target(arc);
+        if (!visited[next]) {
+          visited[next] = true;
+          nodeTo[next] = node;
+          distTo[next] = distTo[node] + 1;
+          queue[tail++] = next;
+        }
+      }
+    }
+  }
+
+  /**
+   * BFS over a bitset adjacency matrix. The neighbors of a node that are still unvisited are found
+   * 64 at a time with an AND against the bitset of unvisited nodes.
+   *
+   * @time O(|V|^2 / 64)
+   */
+  static void bfs(GraphBitset graph, int source) {
+    int words = graph.words;
+    long[] adj = graph.adj;
+    long[] unvisited = graph.allNodes();
+    visited = new boolean[graph.getNumVertices()];
+    nodeTo = new int[graph.getNumVertices()];
+    distTo = new int[graph.getNumVertices()];
+    int[] queue = new int[graph.getNumVertices()];
+    int head = 0;
+    int tail = 0;
+
+    Arrays.fill(distTo, -1);
+    distTo[source] = 0;
+    visited[source] = true;
+    unvisited[source >>> 6] &= ~(1L << source);
+    queue[tail++] = source;
+
+    while (head < tail) {
+      int node = queue[head++];
+      int row = node * words;
+      for (int w = 0; w < words; w++) {
+        long fresh = adj[row + w] & unvisited[w];
+        if (fresh == 0) {
+          continue;
+        }
+        unvisited[w] &= ~fresh;
+        for (; fresh != 0; fresh &= fresh - 1) {
+          int next = (w << 6) + Long.numberOfTrailingZeros(fresh);
+          visited[next] = true;
+          nodeTo[next] = node;
+          distTo[next] = distTo[node] + 1;
+          queue[tail++] = next;
+        }
+      }
+    }
+  }
+
+  /**
+   * Iterative DFS over a compressed graph, decoding each adjacency list as it is scanned
+   */
+  static void iterativeDfs(GraphCompressed graph, int source) {
+    GraphCompressed.NeighborIterator it = graph.iterator();
+    visited = new boolean[graph.getNumVertices()];
+    nodeTo = new int[graph.getNumVertices()];
+    int[] stack = new int[Math.max(graph.getNumVertices(), 1)];
+    int top = 0;
+    stack[top++] = source;
+
+    while (top > 0) {
+      int node = stack[--top];
+      if (visited[node]) {
+        continue;
+      }
+      visited[node] = true;
+      for (it.reset(node); it.hasNext();) {
+        int next = it.next();
+        if (!visited[next]) {
+          if (top == stack.length) {
+            stack = Arrays.copyOf(stack, 2 * top);
+          }
+          stack[top++] = next;
+          nodeTo[next] = node;
+        }
+      }
+    }
+  }
+
+  /**
+   * BFS over a compressed graph, decoding each adjacency list as it is scanned
+   */
+  static void bfs(GraphCompressed graph, int source) {
+    GraphCompressed.NeighborIterator it = graph.iterator();
+    visited = new boolean[graph.getNumVertices()];
+    nodeTo = new int[graph.getNumVertices()];
+    distTo = new int[graph.getNumVertices()];
+    int[] queue = new int[graph.getNumVertices()];
+    int head = 0;
+    int tail = 0;
+
+    Arrays.fill(distTo, -1);
+    distTo[source] = 0;
+    visited[source] = true;
+    queue[tail++] = source;
+
+    while (head < tail) {
+      int node = queue[head++];
+      for (it.reset(node); it.hasNext();) {
+        int next = it.next();
+        if (!visited[next]) {
+          visited[next] = true;
+          nodeTo[next] = node;
+          distTo[next] = distTo[node] + 1;
+          queue[tail++] = next;
+        }
+      }
+    }
+  }
+
+  /**
+   * Same as bfs(GraphCSR, int) but returning the result instead of filling the static fields, so
+   * it can run concurrently with other queries on the same graph
+   *
+   * @param pool
+   *          Pool the tree is taken from, or <code>null</code> to allocate a new one
+   * @time O(|V| + |E|)
+   */
+  static ShortestPathTree bfs(GraphCSR graph, int source, ShortestPathTree.Pool pool) {
+    int[] offsets = graph.offsets;
+    int[] targets = graph.targets;
+    ShortestPathTree tree = ShortestPathTree.acquire(pool, graph.getNumVertices(), source);
+    int[] distTo = tree.distTo;
+    int[] nodeTo = tree.nodeTo;
+    int[] queue = tree.work;
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = source;
+
+    while (head < tail) {
+      int node = queue[head++];
+      for (int arc = offsets[node]; arc < offsets[node + 1]; arc++) {
+        int next = targets[arc];
+        if (distTo[next] == ShortestPathTree.INF) {
+          distTo[next] = distTo[node] + 1;
+          nodeTo[next] = node;
+          queue[tail++] = next;
+        }
+      }
+    }
+    return tree;
+  }
+
+  /**
+   * BFS on a consistent view of a GraphDynamic, while the writer keeps updating the graph
+   *
+   * @param pool
+   *          Pool the tree is taken from, or <code>null</code> to allocate a new one
+   * @time O(|V| + |E| + delta log delta)
+   */
+  static ShortestPathTree bfs(GraphDynamic.Snapshot graph, int source,
+      ShortestPathTree.Pool pool) {
+    ShortestPathTree tree = ShortestPathTree.acquire(pool, graph.getNumVertices(), source);
+    GraphDynamic.Arcs arcs = new GraphDynamic.Arcs();
+    int[] distTo = tree.distTo;
+    int[] nodeTo = tree.nodeTo;
+    int[] queue = tree.work;
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = source;
+
+    while (head < tail) {
+      int node = queue[head++];
+      graph.arcs(node, arcs);
+      for (int i = 0; i < arcs.size(); i++) {
+        int next = arcs.to(i);
+        if (distTo[next] == ShortestPathTree.INF) {
+          distTo[next] = distTo[node] + 1;
+          nodeTo[next] = node;
+          queue[tail++] = next;
+        }
+      }
+    }
+    return tree;
+  }
+
+  /**
+   * DFS returning the DFS tree (distanceTo is the depth of each node) instead of filling the
+   * static fields. Each node in the stack keeps its next arc, so the stack holds at most |V| nodes.
+   *
+   * @param pool
+   *          Pool the tree is taken from, or <code>null</code> to allocate a new one
+   * @time O(|V| + |E|)
+   */
+  static ShortestPathTree iterativeDfs(GraphCSR graph, int source, ShortestPathTree.Pool pool) {
+    int[] offsets = graph.offsets;
+    int[] targets = graph.targets;
+    ShortestPathTree tree = ShortestPathTree.acquire(pool, graph.getNumVertices(), source);
+    int[] distTo = tree.distTo;
+    int[] nodeTo = tree.nodeTo;
+    int[] stack = tree.work;
+    int[] cursor = tree.cursor;
+    int top = 0;
+    stack[top++] = source;
+    cursor[source] = offsets[source];
+
+    while (top > 0) {
+      int node = stack[top - 1];
+      if (cursor[node] == offsets[node + 1]) {
+        top--;
+        continue;
+      }
+      int next = targets[cursor[node]++];
+      if (distTo[next] == ShortestPathTree.INF) {
+        distTo[next] = distTo[node] + 1;
+        nodeTo[next] = node;
+        cursor[next] = offsets[next];
+        stack[top++] = next;
+      }
+    }
+    return tree;
+  }
+
+  /***********************************/
+  /*** Grid engine                   */
+  // Grids are flat arrays of rows * cols cells in row-major order: cell = row * cols + col
+  static final int[] DELTA_ROW_4 = { 1, 0, -1, 0 }; // S,E,N,W
+  static final int[] DELTA_COL_4 = { 0, 1, 0, -1 };
+  static final int[] DELTA_ROW_8 = { 1, 1, 0, -1, -1, -1, 0, 1 }; // S,SE,E,NE,N,NW,W,SW
+  static final int[] DELTA_COL_8 = { 0, 1, 1, 1, 0, -1, -1, -1 };
+  private static final int NO_FREE_CELL = Integer.MIN_VALUE;
+
+  /**
+   * Multi-source BFS over a grid without building a graph: moves to the 4 (or 8) neighbors that
+   * are not walls. A single source is a plain BFS.
+   *
+   * @param diagonals
+   *          If <code>true</code> uses the 8-neighborhood
+   * @return Distance of each cell to the closest source, -1 if unreachable
+   * @time O(rows * cols)
+   */
+  static int[] gridBfs(char[] grid, int rows, int cols, char wall, boolean diagonals,
+      int... sources) {
+    return grid01Bfs(grid, null, rows, cols, wall, NO_FREE_CELL, diagonals, sources);
+  }
+
+  /**
+   * Same as gridBfs(char[], ...) for a grid of bytes
+   */
+  static int[] gridBfs(byte[] grid, int rows, int cols, byte wall, boolean diagonals,
+      int... sources) {
+    return grid01Bfs(null, grid, rows, cols, wall, NO_FREE_CELL, diagonals, sources);
+  }
+
+  /**
+   * Multi-source 0-1 BFS over a grid: entering a <code>free</code> cell costs 0, entering any
+   * other cell that is not a wall costs 1. Zero cost moves go to the front of the deque and the
+   * others to the back, so cells come out in order of distance without a heap.
+   *
+   * @return Cost of reaching each cell from the closest source, -1 if unreachable
+   * @time O(rows * cols)
+   */
+  static int[] grid01Bfs(char[] grid, int rows, int cols, char wall, char free, boolean diagonals,
+      int... sources) {
+    return grid01Bfs(grid, null, rows, cols, wall, free, diagonals, sources);
+  }
+
+  /**
+   * Same as grid01Bfs(char[], ...) for a grid of bytes
+   */
+  static int[] grid01Bfs(byte[] grid, int rows, int cols, byte wall, byte free, boolean diagonals,
+      int... sources) {
+    return grid01Bfs(null, grid, rows, cols, wall, free, diagonals, sources);
+  }
+
+  /**
+   * Reads the cells from whichever of chars or bytes is not null. Without free cells every move
+   * costs 1, the deque is only used as a queue and each cell enters it once.
+   */
+  private static int[] grid01Bfs(char[] chars, byte[] bytes, int rows, int cols, int wall,
+      int free, boolean diagonals, int[] sources) {
+    int[] deltaRow = diagonals ? DELTA_ROW_8 : DELTA_ROW_4;
+    int[] deltaCol = diagonals ? DELTA_COL_8 : DELTA_COL_4;
+    int size = rows * cols;
+    int[] dist = new int[size];
+    Arrays.fill(dist, -1);
+
+    int[] deque = new int[Integer.highestOneBit(Math.max(size, 1)) << 1]; // Circular
+    int mask = deque.length - 1;
+    int head = 0;
+    int count = 0;
+    for (int source : sources) {
+      if (dist[source] != 0) {
+        dist[source] = 0;
+        deque[(head + count++) & mask] = source;
+      }
+    }
+
+    while (count > 0) {
+      int cell = deque[head];
+      head = (head + 1) & mask;
+      count--;
+      int row = cell / cols;
+      int col = cell - row * cols;
+      for (int k = 0; k < deltaRow.length; k++) {
+        int nextRow = row + deltaRow[k];
+        int nextCol = col + deltaCol[k];
+        if (nextRow < 0 || nextRow >= rows || nextCol < 0 || nextCol >= cols) {
+          continue;
+        }
+        int next = nextRow * cols + nextCol;
+        int value = chars != null ? chars[next] : bytes[next];
+        if (value == wall) {
+          continue;
+        }
+        int cost = value == free ? 0 : 1;
+        int newDist = dist[cell] + cost;
+        if (dist[next] != -1 && dist[next] <= newDist) {
+          continue;
+        }
+        dist[next] = newDist;
+        if (count == deque.length) { // Only with free cells, which can enter several times
+          int[] grown = new int[2 * deque.length];
+          for (int i = 0; i < count; i++) {
+            grown[i] = deque[(head + i) & mask];
+          }
+          deque = grown;
+          mask = deque.length - 1;
+          head = 0;
+        }
+        if (cost == 0) {
+          head = (head - 1) & mask;
+          deque[head] = next;
+        } else {
+          deque[(head + count) & mask] = next;
+        }
+        count++;
+      }
+    }
+    return dist;
+  }
+
 	// Use after running DFS or BFS from node u
 	static ArrayDeque<Integer> pathTo(int from, int to) {
 		ArrayDeque<Integer> path = new ArrayDeque<Integer>();
@@ -0,0 +1,171 @@
+package Graph;
+
+import java.util.Arrays;
+
+/**
+ * Graph class with unique and unweighted edges backed by primitive int sets instead of one
+ * HashSet&lt;Integer&gt; per node. The neighbors of each node are kept in insertion order in a
+ * dense int[], and once a node has more than SMALL neighbors an open addressing table of indices
+ * into that array is added to answer membership in O(1). Call finish() to freeze it as a
+ * {@link GraphCSR} with sorted adjacency lists.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class GraphUniqueEdgeCompact {
+
+  private static final int SMALL = 8; // Below this size a linear scan beats hashing
+
+  final int V;
+  int E = 0;
+  private int[][] values; // Neighbors of each node, null until its first edge
+  private int[][] table; // Index + 1 in values of each hashed neighbor, 0 if the slot is empty
+  private int[] size;
+
+  public GraphUniqueEdgeCompact(int V) {
+    this.V = V;
+    values = new int[V][];
+    table = new int[V][];
+    size = new int[V];
+  }
+
+  /**
+   * @return <code>true</code> if the edge wasn't already in the graph
+   */
+  public boolean addDEdge(int v, int w) {
+    if (!add(v, w)) {
+      return false;
+    }
+    E++;
+    return true;
+  }
+
+  /**
+   * @return <code>true</code> if the edge wasn't already in the graph
+   */
+  public boolean addUEdge(int v, int w) {
+    if (!add(v, w)) {
+      return false;
+    }
+    if (v != w)
+      add(w, v);
+    E++;
+    return true;
+  }
+
+  public boolean hasEdge(int v, int w) {
+    int[] adj = values[v];
+    if (adj == null) {
+      return false;
+    }
+    int[] slots = table[v];
+    if (slots == null) {
+      for (int i = 0; i < size[v]; i++) {
+        if (adj[i] == w) {
+          return true;
+        }
+      }
+      return false;
+    }
+    int mask = slots.length - 1;
+    for (int slot = hash(w) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+      if (adj[slots[slot] - 1] == w) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public int degree(int node) {
+    return size[node];
+  }
+
+  /**
+   * i-th neighbor of the node in insertion order, 0 <= i < degree(node)
+   */
+  public int neighbor(int node, int i) {
+    return values[node][i];
+  }
+
+  private boolean add(int v, int w) {
+    if (hasEdge(v, w)) {
+      return false;
+    }
+    if (values[v] == null) {
+      values[v] = new int[4];
+    } else if (size[v] == values[v].length) {
+      values[v] = Arrays.copyOf(values[v], 2 * size[v]);
+    }
+    values[v][size[v]++] = w;
+
+    if (table[v] != null && 2 * size[v] > table[v].length) {
+      table[v] = null; // Grow keeping the load factor under 1/2
+    }
+    if (table[v] == null && size[v] > SMALL) {
+      rehash(v);
+    } else if (table[v] != null) {
+      insertSlot(table[v], w, size[v]);
+    }
+    return true;
+  }
+
+  private void rehash(int v) {
+    int[] slots = new int[Integer.highestOneBit(4 * size[v] - 1) << 1];
+    for (int i = 0; i < size[v]; i++) {
+      insertSlot(slots, values[v][i], i + 1);
+    }
+    table[v] = slots;
+  }
+
+  private static void insertSlot(int[] slots, int w, int index) {
+    int mask = slots.length - 1;
+    int slot = hash(w) & mask;
+    while (slots[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    slots[slot] = index;
+  }
+
+  private static int hash(int w) {
+    int h = w * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Freezes the graph into CSR format with every adjacency list sorted. The sets are released
+   * node by node, so the peak memory is not much more than the final graph, and this object can't
+   * be used afterwards.
+   *
+   * @time O(|V| + |E| log |E|)
+   */
+  public GraphCSR finish() {
+    int[] offsets = new int[V + 1];
+    for (int node = 0; node < V; node++) {
+      offsets[node + 1] = offsets[node] + size[node];
+    }
+    int[] targets = new int[offsets[V]];
+    for (int node = 0; node < V; node++) {
+      if (size[node] > 0) {
+        System.arraycopy(values[node], 0, targets, offsets[node], size[node]);
+        Arrays.sort(targets, offsets[node], offsets[node + 1]);
+      }
+      values[node] = null;
+      table[node] = null;
+    }
+    return new GraphCSR(V, E, offsets, targets);
+  }
+
+  public String toString() {
+    StringBuilder sb = new StringBuilder(V + E);
+    sb.append("Nodes: " + V + " Edges: " + E + "\n");
+    for (int i = 0; i < V; i++) {
+      sb.append(i + " -> [");
+      for (int j = 0; j < size[i]; j++) {
+        if (j != 0)
+          sb.append(", ");
+        sb.append(values[i][j]);
+      }
+      sb.append("]\n");
+    }
+    return sb.toString();
+  }
+}
@@ -12,6 +12,7 @@ public class GraphWeighted {
   static class GraphWE {
     private final int numVertices;
     private int numEdges = 0;
+    private volatile int version = 0; // Incremented by every edge added, to invalidate caches
     private ArrayDeque<Edge>[] adj;
 
     @SuppressWarnings("unchecked")
@@ -42,26 +43,39 @@ public class GraphWeighted {
       return numEdges;
     }
 
+    /**
+     * Number of changes made through the add methods. Changes made directly on the lists returned
+     * by adj() are not counted. The graph itself is not thread-safe: readers in other threads see
+     * a new version as soon as it is written, but the edges must not change during their queries.
+     */
+    public int getVersion() {
+      return version;
+    }
+
     public void addDEdge(Edge e) {
       adj[e.from].add(e);
       numEdges++;
+      version++;
     }
 
     public void addDEdge(int from, int to, int weight) {
       adj[from].add(new Edge(from, to, weight));
       numEdges++;
+      version++;
     }
 
     public void addUEdge(Edge edge) {
       adj[edge.from].add(edge);
       adj[edge.to].add(new Edge(edge.to, edge.from, edge.weight));
       numEdges++;
+      version++;
     }
 
     public void addUEdge(int from, int to, int l) {
       adj[from].add(new Edge(from, to, l));
       adj[to].add(new Edge(to, from, l));
       numEdges++;
+      version++;
     }
 
     public ArrayDeque<Edge> adj(int node) {
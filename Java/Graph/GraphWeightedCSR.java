@@ -0,0 +1,256 @@
+package Graph;
+
+import java.util.Arrays;
+
+import Graph.GraphWeighted.Edge;
+import Graph.GraphWeighted.GraphWE;
+
+/**
+ * Immutable graph class with weighted edges stored as a structure of arrays. The arcs leaving a
+ * node are the indices <code>offsets[node] ... offsets[node + 1] - 1</code> of the parallel arrays
+ * <code>to</code> and <code>weight</code>, so no Edge object is allocated per arc.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class GraphWeightedCSR {
+  private final int numVertices;
+  private final int numEdges;
+  final int[] offsets; // Size |V| + 1
+  final int[] to; // Size equal to the number of arcs
+  final int[] weight; // Size equal to the number of arcs
+  private int minWeight = 0; // Computed when the graph is frozen, 0 if there are no arcs
+  private int maxWeight = 0;
+
+  GraphWeightedCSR(int numVertices, int numEdges, int[] offsets, int[] to, int[] weight) {
+    this.numVertices = numVertices;
+    this.numEdges = numEdges;
+    this.offsets = offsets;
+    this.to = to;
+    this.weight = weight;
+    computeWeightRange();
+  }
+
+  /**
+   * Freezes the given graph keeping the order of the adjacency lists
+   *
+   * @time O(|V| + |E|)
+   */
+  public GraphWeightedCSR(GraphWE graph) {
+    this.numVertices = graph.getNumVertices();
+    this.numEdges = graph.getNumEdges();
+    this.offsets = new int[numVertices + 1];
+    for (int node = 0; node < numVertices; node++) {
+      offsets[node + 1] = offsets[node] + graph.adj(node).size();
+    }
+    this.to = new int[offsets[numVertices]];
+    this.weight = new int[offsets[numVertices]];
+    int arc = 0;
+    for (int node = 0; node < numVertices; node++) {
+      for (Edge edge : graph.adj(node)) {
+        to[arc] = edge.to;
+        weight[arc] = edge.weight;
+        arc++;
+      }
+    }
+    computeWeightRange();
+  }
+
+  private void computeWeightRange() {
+    if (weight.length == 0) {
+      return;
+    }
+    minWeight = Integer.MAX_VALUE;
+    maxWeight = Integer.MIN_VALUE;
+    for (int w : weight) {
+      minWeight = Math.min(minWeight, w);
+      maxWeight = Math.max(maxWeight, w);
+    }
+  }
+
+  public int getNumVertices() {
+    return numVertices;
+  }
+
+  /**
+   * Number of edges added, undirected edges count once as in {@link GraphWE}
+   */
+  public int getNumEdges() {
+    return numEdges;
+  }
+
+  /**
+   * Number of stored arcs, undirected edges count twice
+   */
+  public int getNumArcs() {
+    return to.length;
+  }
+
+  /**
+   * Lowest arc weight, used to check that the bucket based algorithms can be used
+   */
+  public int getMinWeight() {
+    return minWeight;
+  }
+
+  /**
+   * Highest arc weight, used to choose between the bucket based algorithms
+   */
+  public int getMaxWeight() {
+    return maxWeight;
+  }
+
+  /**
+   * First arc of the node. Iterate with
+   * <code>for (int arc = start(node); arc < end(node); arc++)</code>
+   */
+  public int start(int node) {
+    return offsets[node];
+  }
+
+  public int end(int node) {
+    return offsets[node + 1];
+  }
+
+  public int to(int arc) {
+    return to[arc];
+  }
+
+  public int weight(int arc) {
+    return weight[arc];
+  }
+
+  /**
+   * Node the arc leaves from. Only used to rebuild paths, so it is not stored.
+   *
+   * @time O(log |V|)
+   */
+  public int from(int arc) {
+    int low = 0;
+    int high = numVertices - 1;
+    while (low < high) { // Last node whose first arc is <= arc
+      int mid = (low + high + 1) >>> 1;
+      if (offsets[mid] <= arc) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Graph with every arc reversed. The arcs of each node are its incoming arcs in the order of
+   * their original indices.
+   *
+   * @time O(|V| + |E|)
+   */
+  public GraphWeightedCSR reverse() {
+    int[] revOffsets = new int[numVertices + 1];
+    for (int arc = 0; arc < to.length; arc++) {
+      revOffsets[to[arc] + 1]++;
+    }
+    for (int node = 0; node < numVertices; node++) {
+      revOffsets[node + 1] += revOffsets[node];
+    }
+    int[] pos = Arrays.copyOf(revOffsets, numVertices);
+    int[] revTo = new int[to.length];
+    int[] revWeight = new int[to.length];
+    for (int node = 0; node < numVertices; node++) {
+      for (int arc = offsets[node]; arc < offsets[node + 1]; arc++) {
+        int revArc = pos[to[arc]]++;
+        revTo[revArc] = node;
+        revWeight[revArc] = weight[arc];
+      }
+    }
+    return new GraphWeightedCSR(numVertices, numEdges, revOffsets, revTo, revWeight);
+  }
+
+  public String toString() {
+    StringBuilder result = new StringBuilder(numVertices + numEdges);
+    result.append("Nodes: " + numVertices + " Edges: " + numEdges + "\n");
+    for (int act = 0; act < numVertices; act++) {
+      result.append(act + " -> ");
+      for (int arc = offsets[act]; arc < offsets[act + 1]; arc++) {
+        if (arc != offsets[act])
+          result.append(", ");
+        result.append("(" + to[arc] + " <" + weight[arc] + ">)");
+      }
+      result.append('\n');
+    }
+    return result.toString();
+  }
+
+  /**
+   * Collects the arcs in growing int arrays and sorts them by source with a counting sort.
+   * Adjacency lists keep the insertion order, like in {@link GraphWE}.
+   */
+  static class Builder {
+    private final int numVertices;
+    private int numEdges = 0;
+    private int numArcs = 0;
+    private int[] from;
+    private int[] to;
+    private int[] weight;
+
+    public Builder(int numVertices) {
+      this(numVertices, 16);
+    }
+
+    public Builder(int numVertices, int expectedArcs) {
+      this.numVertices = numVertices;
+      from = new int[Math.max(expectedArcs, 1)];
+      to = new int[Math.max(expectedArcs, 1)];
+      weight = new int[Math.max(expectedArcs, 1)];
+    }
+
+    public int getNumVertices() {
+      return numVertices;
+    }
+
+    public void addDEdge(int from, int to, int weight) {
+      addArc(from, to, weight);
+      numEdges++;
+    }
+
+    public void addUEdge(int from, int to, int weight) {
+      addArc(from, to, weight);
+      addArc(to, from, weight);
+      numEdges++;
+    }
+
+    private void addArc(int u, int v, int w) {
+      if (numArcs == from.length) {
+        from = Arrays.copyOf(from, 2 * numArcs);
+        to = Arrays.copyOf(to, 2 * numArcs);
+        weight = Arrays.copyOf(weight, 2 * numArcs);
+      }
+      from[numArcs] = u;
+      to[numArcs] = v;
+      weight[numArcs] = w;
+      numArcs++;
+    }
+
+    /**
+     * @time O(|V| + |E|)
+     */
+    public GraphWeightedCSR build() {
+      int[] offsets = new int[numVertices + 1];
+      for (int i = 0; i < numArcs; i++) {
+        offsets[from[i] + 1]++;
+      }
+      for (int node = 0; node < numVertices; node++) {
+        offsets[node + 1] += offsets[node];
+      }
+      int[] pos = Arrays.copyOf(offsets, numVertices);
+      int[] sortedTo = new int[numArcs];
+      int[] sortedWeight = new int[numArcs];
+      for (int i = 0; i < numArcs; i++) {
+        int arc = pos[from[i]]++;
+        sortedTo[arc] = to[i];
+        sortedWeight[arc] = weight[i];
+      }
+      return new GraphWeightedCSR(numVertices, numEdges, offsets, sortedTo, sortedWeight);
+    }
+  }
+
+}
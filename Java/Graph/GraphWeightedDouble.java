@@ -49,7 +49,7 @@ public class GraphWeightedDouble {
       numEdges++;
     }
 
-    public void addDEdge(int from, int to, int weight) {
+    public void addDEdge(int from, int to, double weight) {
       adj[from].add(new Edge(from, to, weight));
       numEdges++;
     }
@@ -60,7 +60,7 @@ public class GraphWeightedDouble {
       numEdges++;
     }
 
-    public void addUEdge(int from, int to, int weight) {
+    public void addUEdge(int from, int to, double weight) {
       adj[from].add(new Edge(from, to, weight));
       adj[to].add(new Edge(to, from, weight));
       numEdges++;
@@ -89,9 +89,10 @@ public class GraphWeightedDouble {
   }
 
   static class Edge implements Comparable<Edge> {
-    public final int from, to, weight;
+    public final int from, to;
+    public final double weight;
 
-    Edge(int from, int to, int weight) {
+    Edge(int from, int to, double weight) {
       this.from = from;
       this.to = to;
       this.weight = weight;
@@ -0,0 +1,181 @@
+package Graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Min-heap of int keys in [0, capacity) with long priorities, stored as a d-ary heap in primitive
+ * arrays. Each key is at most once in the heap and its position is tracked, so decreaseKey() moves
+ * it up instead of adding a stale copy like a PriorityQueue&lt;Pair&gt;. Nothing is allocated after
+ * the construction, and clear() makes it reusable for the next query in O(size).
+ *
+ * A 4-ary heap has half the depth of a binary heap, so decreaseKey() (the common operation in
+ * Dijkstra) is cheaper, and the children of a node share a cache line.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class IndexedDHeap {
+  private final int arity;
+  private final int[] heap; // Keys by position in the heap
+  private final int[] pos; // Position of each key in the heap, -1 if not in it
+  private final long[] priority; // Priority of each key in the heap
+  private int size = 0;
+
+  public IndexedDHeap(int capacity) {
+    this(capacity, 4);
+  }
+
+  /**
+   * @throws IllegalArgumentException
+   *           if arity < 2, as the index of the parent is (child - 1) / arity
+   */
+  public IndexedDHeap(int capacity, int arity) {
+    if (arity < 2) {
+      throw new IllegalArgumentException("Heap arity must be at least 2: " + arity);
+    }
+    this.arity = arity;
+    this.heap = new int[capacity];
+    this.pos = new int[capacity];
+    this.priority = new long[capacity];
+    Arrays.fill(pos, -1);
+  }
+
+  public int capacity() {
+    return heap.length;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean contains(int key) {
+    return pos[key] != -1;
+  }
+
+  public long priority(int key) {
+    return priority[key];
+  }
+
+  /**
+   * @time O(log_d size)
+   */
+  public void add(int key, long value) {
+    pos[key] = size;
+    heap[size++] = key;
+    priority[key] = value;
+    siftUp(pos[key]);
+  }
+
+  /**
+   * The new priority must not be greater than the current one
+   *
+   * @time O(log_d size)
+   */
+  public void decreaseKey(int key, long value) {
+    priority[key] = value;
+    siftUp(pos[key]);
+  }
+
+  /**
+   * Adds the key or lowers its priority if it is already in the heap with a greater one
+   *
+   * @return <code>true</code> if the heap changed
+   * @time O(log_d size)
+   */
+  public boolean addOrDecrease(int key, long value) {
+    if (pos[key] == -1) {
+      add(key, value);
+      return true;
+    }
+    if (value < priority[key]) {
+      decreaseKey(key, value);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Key with the lowest priority
+   */
+  public int peek() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    return heap[0];
+  }
+
+  /**
+   * Removes and returns the key with the lowest priority, which can still be read with
+   * priority(key)
+   *
+   * @time O(d log_d size)
+   */
+  public int poll() {
+    int min = peek();
+    pos[min] = -1;
+    size--;
+    if (size > 0) {
+      heap[0] = heap[size];
+      pos[heap[0]] = 0;
+      siftDown(0);
+    }
+    return min;
+  }
+
+  /**
+   * @time O(size)
+   */
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      pos[heap[i]] = -1;
+    }
+    size = 0;
+  }
+
+  private void siftUp(int i) {
+    int key = heap[i];
+    long value = priority[key];
+    while (i > 0) {
+      int parent = (i - 1) / arity;
+      if (priority[heap[parent]] <= value) {
+        break;
+      }
+      heap[i] = heap[parent];
+      pos[heap[i]] = i;
+      i = parent;
+    }
+    heap[i] = key;
+    pos[key] = i;
+  }
+
+  private void siftDown(int i) {
+    int key = heap[i];
+    long value = priority[key];
+    while (true) {
+      int first = arity * i + 1;
+      if (first >= size) {
+        break;
+      }
+      int last = Math.min(first + arity, size);
+      int best = first;
+      for (int child = first + 1; child < last; child++) {
+        if (priority[heap[child]] < priority[heap[best]]) {
+          best = child;
+        }
+      }
+      if (priority[heap[best]] >= value) {
+        break;
+      }
+      heap[i] = heap[best];
+      pos[heap[i]] = i;
+      i = best;
+    }
+    heap[i] = key;
+    pos[key] = i;
+  }
+
+}
@@ -0,0 +1,128 @@
+package Graph;
+
+/**
+ * Johnson's all pairs shortest paths for sparse graphs with negative weights. A Bellman-Ford from
+ * a virtual node joined to every node by a 0 arc gives a potential h with h(v) <= h(u) + w(u, v)
+ * for every arc, so the reduced weights w(u, v) + h(u) - h(v) are non-negative and keep the same
+ * shortest paths. Then every source runs a Dijkstra on the reduced graph, in parallel with
+ * {@link BatchShortestPaths}, and d(u, v) = d'(u, v) - h(u) + h(v).
+ *
+ * If the graph has a negative cycle there is no potential, and one of the cycles is reported
+ * instead of any distance.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class Johnson {
+  static final int INF = ShortestPaths.INF;
+
+  final GraphWeightedCSR graph;
+  final int[] potential; // null if there is a negative cycle
+  final int[] negativeCycle; // null if there is none
+  final GraphWeightedCSR reduced; // Same arcs with the reduced weights, null with a cycle
+
+  /**
+   * Computes the potential and the reduced graph, which shares the structure of the graph so the
+   * arc ids in the trees are the ids of the original arcs
+   *
+   * @time O(|V| * |E|) but typical case is O(|V| + |E|)
+   */
+  public Johnson(GraphWeightedCSR graph) {
+    this.graph = graph;
+    int n = graph.getNumVertices();
+    BellmanFord.Result potentials = BellmanFord.run(graph, -1);
+    if (potentials.hasNegativeCycle()) {
+      potential = null;
+      negativeCycle = potentials.negativeCycle;
+      reduced = null;
+      return;
+    }
+    int[] dist = potentials.distTo;
+    potential = dist;
+    negativeCycle = null;
+    int[] weight = new int[graph.getNumArcs()];
+    for (int node = 0; node < n; node++) {
+      for (int arc = graph.offsets[node]; arc < graph.offsets[node + 1]; arc++) {
+        weight[arc] = graph.weight[arc] + dist[node] - dist[graph.to[arc]];
+      }
+    }
+    reduced = new GraphWeightedCSR(n, graph.getNumEdges(), graph.offsets, graph.to, weight);
+  }
+
+  public boolean hasNegativeCycle() {
+    return negativeCycle != null;
+  }
+
+  /**
+   * Nodes of a negative cycle in the order of its arcs (the last one goes back to the first), or
+   * null if there is none
+   */
+  public int[] getNegativeCycle() {
+    return negativeCycle == null ? null : negativeCycle.clone();
+  }
+
+  /**
+   * Streams to the consumer the tree of every sources[index], with the distances already mapped
+   * back to the original weights. The trees are only valid during accept(), as in
+   * BatchShortestPaths.
+   *
+   * @throws IllegalStateException
+   *           if the graph has a negative cycle
+   * @time O(k |E| log |V|) split among the threads, for k sources
+   */
+  void shortestPaths(int[] sources, int numThreads, final BatchShortestPaths.TreeConsumer consumer)
+      throws InterruptedException {
+    if (hasNegativeCycle()) {
+      throw new IllegalStateException("Negative cycle through node " + negativeCycle[0]);
+    }
+    final int n = graph.getNumVertices();
+    BatchShortestPaths.dijkstra(reduced, sources, numThreads,
+        new BatchShortestPaths.TreeConsumer() {
+          public void accept(int index, ShortestPathTree tree) {
+            int shift = potential[tree.getSource()];
+            for (int node = 0; node < n; node++) {
+              if (tree.distTo[node] != INF) {
+                tree.distTo[node] += potential[node] - shift;
+              }
+            }
+            consumer.accept(index, tree);
+          }
+        });
+  }
+
+  /**
+   * Fills distances[index] with the distances from sources[index] to every node, INF if
+   * unreachable
+   *
+   * @param distances
+   *          int[sources.length][|V|]
+   * @throws IllegalStateException
+   *           if the graph has a negative cycle
+   */
+  void distanceMatrix(int[] sources, final int[][] distances, int numThreads)
+      throws InterruptedException {
+    final int n = graph.getNumVertices();
+    shortestPaths(sources, numThreads, new BatchShortestPaths.TreeConsumer() {
+      public void accept(int index, ShortestPathTree tree) {
+        System.arraycopy(tree.distTo, 0, distances[index], 0, n);
+      }
+    });
+  }
+
+  /**
+   * New |V| x |V| matrix with all the distances, computed on all the processors
+   *
+   * @throws IllegalStateException
+   *           if the graph has a negative cycle
+   */
+  int[][] allPairs() throws InterruptedException {
+    int n = graph.getNumVertices();
+    int[] sources = new int[n];
+    for (int node = 0; node < n; node++) {
+      sources[node] = node;
+    }
+    int[][] distances = new int[n][n];
+    distanceMatrix(sources, distances, Runtime.getRuntime().availableProcessors());
+    return distances;
+  }
+
+}
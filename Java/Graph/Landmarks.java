@@ -0,0 +1,136 @@
+package Graph;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ALT heuristic (A*, landmarks and triangle inequality) for {@link AStar}. The distances from
+ * and to a few landmarks are precomputed, and for any landmark L the triangle inequality gives
+ * the lower bounds d(v, t) >= d(L, t) - d(L, v) and d(v, t) >= d(v, L) - d(t, L). Landmarks on
+ * the periphery of the graph give tight bounds for most queries. The tables are node-major int[]
+ * so the bounds of all the landmarks of a node share cache lines.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class Landmarks implements AStar.Heuristic {
+  static final int INF = ShortestPaths.INF;
+
+  final int[] landmarks;
+  final int numLandmarks;
+  final int[] distFrom; // distFrom[node * numLandmarks + i] = d(landmarks[i], node)
+  final int[] distTo; // distTo[node * numLandmarks + i] = d(node, landmarks[i])
+
+  /**
+   * Landmarks chosen by selectFarthest() with the tables computed on all the processors
+   *
+   * @time O(k |E| log |V|) split among the threads
+   */
+  public static Landmarks compute(GraphWeightedCSR graph, int k) throws InterruptedException {
+    return new Landmarks(graph, selectFarthest(graph, k), Runtime.getRuntime()
+        .availableProcessors());
+  }
+
+  /**
+   * Runs the 2k Dijkstras (forward from each landmark and backward on the reverse graph to each
+   * landmark) on numThreads threads, each one writing its own column of the tables.
+   */
+  public Landmarks(final GraphWeightedCSR graph, int[] landmarks, int numThreads)
+      throws InterruptedException {
+    final int n = graph.getNumVertices();
+    this.landmarks = landmarks.clone();
+    this.numLandmarks = landmarks.length;
+    this.distFrom = new int[n * numLandmarks];
+    this.distTo = new int[n * numLandmarks];
+    final GraphWeightedCSR reverse = graph.reverse();
+    final ShortestPathTree.Pool pool = new ShortestPathTree.Pool(n);
+    final AtomicInteger nextTask = new AtomicInteger();
+
+    Thread[] threads = new Thread[Math.max(1, Math.min(numThreads, 2 * numLandmarks))];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(new Runnable() {
+        public void run() {
+          for (int task; (task = nextTask.getAndIncrement()) < 2 * numLandmarks;) {
+            int i = task >> 1;
+            boolean isFrom = (task & 1) == 0;
+            ShortestPathTree tree = ShortestPaths.dijkstra(isFrom ? graph : reverse,
+                Landmarks.this.landmarks[i], -1, pool);
+            int[] table = isFrom ? distFrom : distTo;
+            for (int node = 0; node < n; node++) {
+              table[node * numLandmarks + i] = tree.distanceTo(node);
+            }
+            tree.release();
+          }
+        }
+      }, "Landmarks " + t);
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+  }
+
+  /**
+   * Farthest point selection by number of arcs: the first landmark is the node farthest from
+   * node 0 and every next one maximizes the distance to the closest landmark already chosen.
+   * Unreachable nodes count as the farthest, so other components get landmarks too.
+   *
+   * @time O(k (|V| + |E|))
+   */
+  static int[] selectFarthest(GraphWeightedCSR graph, int k) {
+    int n = graph.getNumVertices();
+    k = Math.min(k, n);
+    int[] landmarks = new int[k];
+    GraphCSR structure = VertexOrdering.structure(graph);
+    int[] minDist = new int[n];
+    Arrays.fill(minDist, INF);
+    int[] distFromZero = GraphTraversal.bfs(structure, 0, null).distTo;
+    for (int i = 0; i < k; i++) {
+      int[] dist = i == 0 ? distFromZero : minDist;
+      int farthest = 0;
+      for (int node = 1; node < n; node++) {
+        if (dist[node] > dist[farthest]) {
+          farthest = node;
+        }
+      }
+      landmarks[i] = farthest;
+      if (i + 1 < k) {
+        ShortestPathTree tree = GraphTraversal.bfs(structure, farthest, null);
+        for (int node = 0; node < n; node++) {
+          minDist[node] = Math.min(minDist[node], tree.distanceTo(node));
+        }
+      }
+    }
+    return landmarks;
+  }
+
+  /**
+   * Best bound among all the landmarks, INF if the landmarks prove dest unreachable
+   *
+   * @time O(k)
+   */
+  public int estimate(int node, int dest) {
+    int v = node * numLandmarks;
+    int t = dest * numLandmarks;
+    int best = 0;
+    for (int i = 0; i < numLandmarks; i++) {
+      int fromV = distFrom[v + i];
+      int fromT = distFrom[t + i];
+      if (fromV != INF) {
+        if (fromT == INF) {
+          return INF; // L reaches node but not dest
+        }
+        best = Math.max(best, fromT - fromV);
+      }
+      int toV = distTo[v + i];
+      int toT = distTo[t + i];
+      if (toT != INF) {
+        if (toV == INF) {
+          return INF; // dest reaches L but node doesn't
+        }
+        best = Math.max(best, toV - toT);
+      }
+    }
+    return best;
+  }
+
+}
@@ -1,6 +1,7 @@
 package Graph;
 
 import java.util.ArrayDeque;
+import java.util.Arrays;
 
 /**
  * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan) (based on Coursera's course
@@ -20,10 +21,29 @@ public class MaximumFlow {
    * @tested UVA_820, UVA_10480, UVA_11380
    */
   static int fordFulkerson(GraphMaxFlow graph, int source, int sink) {
-    int totalFlow = 0;
     edgeTo = new FlowEdge[graph.numVertices];
+    visited = new boolean[graph.numVertices];
+    return augment(graph, source, sink, edgeTo, visited);
+  }
 
-    while (hasAugPath(graph, source, sink)) {
+  /**
+   * Same as fordFulkerson() but keeping the search state in local arrays instead of the static
+   * fields, so calls on different networks can run at the same time. The flows are stored in the
+   * edges of the network, so each concurrent call needs its own network.
+   *
+   * @time O(|V| * |E|^2)
+   */
+  static FlowResult maxFlow(GraphMaxFlow graph, int source, int sink) {
+    boolean[] sourceCut = new boolean[graph.numVertices];
+    int flow = augment(graph, source, sink, new FlowEdge[graph.numVertices], sourceCut);
+    return new FlowResult(flow, sourceCut);
+  }
+
+  private static int augment(GraphMaxFlow graph, int source, int sink, FlowEdge[] edgeTo,
+      boolean[] visited) {
+    int totalFlow = 0;
+
+    while (hasAugPath(graph, source, sink, edgeTo, visited)) {
       // Find minimum capacity in path from source to dest
       int min = INF;
       for (int node = sink; node != source; node = edgeTo[node].other(node)) {
@@ -40,6 +60,12 @@ public class MaximumFlow {
 
   static boolean hasAugPath(GraphMaxFlow graph, int source, int dest) {
     visited = new boolean[graph.numVertices];
+    return hasAugPath(graph, source, dest, edgeTo, visited);
+  }
+
+  private static boolean hasAugPath(GraphMaxFlow graph, int source, int dest, FlowEdge[] edgeTo,
+      boolean[] visited) {
+    Arrays.fill(visited, false);
 
     ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
     queue.add(source);
@@ -69,6 +95,261 @@ public class MaximumFlow {
     return visited[node];
   }
 
+  /**
+   * Dinic's algorithm on a copy of the network as a FlowNetwork. The flows found are written back
+   * into the edges, which may start with some flow already.
+   *
+   * @time O(|V|^2 * |E|), O(|E| * sqrt(|V|)) with unit capacities
+   */
+  static FlowResult dinic(GraphMaxFlow graph, int source, int sink) {
+    FlowNetwork network = new FlowNetwork(graph);
+    boolean[] sourceCut = new boolean[graph.numVertices];
+    long flow = dinic(network, source, sink, sourceCut);
+    int edge = 0;
+    for (int node = 0; node < graph.numVertices; node++) {
+      for (FlowEdge flowEdge : graph.getAdjacent(node)) {
+        if (flowEdge.from == node && flowEdge.to != node) { // Same order as the conversion
+          flowEdge.flow = (int) network.flow(edge++);
+        }
+      }
+    }
+    return new FlowResult((int) flow, sourceCut);
+  }
+
+  static long dinic(FlowNetwork network, int source, int sink) {
+    return dinic(network, source, sink, null);
+  }
+
+  /**
+   * Dinic's maximum flow algorithm. Each phase finds the level (BFS distance to the sink) of every
+   * node through arcs with residual capacity, and then saturates the level graph with augmenting
+   * paths that only go one level down. Measuring the levels from the sink leaves out the nodes
+   * that can't reach it. The paths are found by an iterative DFS in which every node keeps the arc
+   * it is currently at, so an arc that leads nowhere is skipped for the rest of the phase. The
+   * residual capacities are left in the network.
+   *
+   * @param sourceCut
+   *          If not null, it is filled with the source side of a minimum cut
+   * @return Value of the flow added to the network
+   * @time O(|V|^2 * |E|), O(|E| * sqrt(|V|)) with unit capacities
+   */
+  static long dinic(FlowNetwork network, int source, int sink, boolean[] sourceCut) {
+    if (source == sink) {
+      throw new IllegalArgumentException("Source and sink are the same node " + source);
+    }
+    int n = network.numVertices;
+    int[] head = network.head;
+    int[] next = network.next;
+    int[] to = network.to;
+    long[] cap = network.cap;
+    int[] level = new int[n];
+    int[] current = new int[n]; // Next arc to try from each node in this phase
+    int[] queue = new int[n];
+    int[] path = new int[n]; // Arcs from the source to the node the DFS is at
+    long totalFlow = 0;
+
+    while (levels(network, source, sink, level, queue)) {
+      System.arraycopy(head, 0, current, 0, n);
+      int depth = 0;
+      int node = source;
+      while (true) {
+        if (node == sink) {
+          long push = Long.MAX_VALUE;
+          for (int i = 0; i < depth; i++) {
+            push = Math.min(push, cap[path[i]]);
+          }
+          int saturated = -1; // First arc of the path left without capacity
+          for (int i = 0; i < depth; i++) {
+            cap[path[i]] -= push;
+            cap[path[i] ^ 1] += push;
+            if (cap[path[i]] == 0 && saturated == -1) {
+              saturated = i;
+            }
+          }
+          totalFlow += push;
+          depth = saturated; // Resume from the tail of the saturated arc
+          node = depth == 0 ? source : to[path[depth - 1]];
+          continue;
+        }
+        int arc = current[node];
+        while (arc != -1 && (cap[arc] == 0 || level[to[arc]] != level[node] - 1)) {
+          arc = next[arc];
+        }
+        current[node] = arc;
+        if (arc != -1) {
+          path[depth++] = arc;
+          node = to[arc];
+        } else { // Dead end, skip the arc leading here
+          if (depth == 0) {
+            break;
+          }
+          level[node] = -1; // Not entered again in this phase
+          depth--;
+          node = depth == 0 ? source : to[path[depth - 1]];
+          current[node] = next[current[node]];
+        }
+      }
+    }
+    if (sourceCut != null) {
+      for (int node = 0; node < n; node++) {
+        sourceCut[node] = level[node] == -1; // Can't reach the sink in the residual graph
+      }
+    }
+    return totalFlow;
+  }
+
+  /**
+   * Levels of the nodes with a path to the sink through arcs with residual capacity (BFS from the
+   * sink through the reverses of those arcs), -1 for the rest
+   *
+   * @return <code>true</code> if the source has a path to the sink
+   */
+  private static boolean levels(FlowNetwork network, int source, int sink, int[] level,
+      int[] queue) {
+    int[] next = network.next;
+    int[] to = network.to;
+    long[] cap = network.cap;
+    Arrays.fill(level, -1);
+    level[sink] = 0;
+    int first = 0, last = 0;
+    queue[last++] = sink;
+    while (first < last && level[source] == -1) {
+      int node = queue[first++];
+      for (int arc = network.head[node]; arc != -1; arc = next[arc]) {
+        int prev = to[arc];
+        if (level[prev] == -1 && cap[arc ^ 1] > 0) {
+          level[prev] = level[node] + 1;
+          queue[last++] = prev;
+        }
+      }
+    }
+    return level[source] != -1;
+  }
+
+  /**
+   * Value of a maximum flow and the source side of the minimum cut found with it
+   */
+  static class FlowResult {
+    final int flow;
+    private final boolean[] sourceCut;
+
+    FlowResult(int flow, boolean[] sourceCut) {
+      this.flow = flow;
+      this.sourceCut = sourceCut;
+    }
+
+    public int getFlow() {
+      return flow;
+    }
+
+    public boolean inSourceCut(int node) {
+      return sourceCut[node];
+    }
+  }
+
+  /**
+   * Flow network stored as a residual graph in flat arrays. Edge e is the pair of arcs 2e (from ->
+   * to) and 2e + 1 (to -> from), so the reverse of an arc is arc ^ 1, and cap[] holds the residual
+   * capacity of each arc. The arcs leaving a node form a linked list through head[] and next[].
+   */
+  static class FlowNetwork {
+    final int numVertices;
+    int numArcs = 0;
+    final int[] head; // First arc leaving each node, -1 if none
+    int[] next; // Next arc leaving the same node, -1 if none
+    int[] to;
+    long[] cap;
+    private long[] capacity; // Capacity of each edge from -> to when added
+
+    public FlowNetwork(int numVertices) {
+      this(numVertices, 16);
+    }
+
+    public FlowNetwork(int numVertices, int expectedEdges) {
+      this.numVertices = numVertices;
+      head = new int[numVertices];
+      Arrays.fill(head, -1);
+      int arcs = 2 * Math.max(1, expectedEdges);
+      next = new int[arcs];
+      to = new int[arcs];
+      cap = new long[arcs];
+      capacity = new long[arcs / 2];
+    }
+
+    /**
+     * Copies the edges (without self loops) in the order of the adjacency lists, with their
+     * current flows
+     */
+    public FlowNetwork(GraphMaxFlow graph) {
+      this(graph.numVertices, graph.numEdges);
+      for (int node = 0; node < graph.numVertices; node++) {
+        for (FlowEdge edge : graph.getAdjacent(node)) {
+          if (edge.from == node && edge.to != node) {
+            int id = addEdge(edge.from, edge.to, edge.cap);
+            cap[2 * id] = edge.cap - edge.flow;
+            cap[2 * id + 1] = edge.flow;
+          }
+        }
+      }
+    }
+
+    public int getNumEdges() {
+      return numArcs / 2;
+    }
+
+    /**
+     * @return Id of the edge, whose arcs are 2 id and 2 id + 1
+     */
+    public int addEdge(int from, int to, long capacity) {
+      return addEdge(from, to, capacity, 0);
+    }
+
+    /**
+     * Edge that can carry flow in both directions, as a single pair of arcs
+     *
+     * @return Id of the edge, whose arcs are 2 id and 2 id + 1
+     */
+    public int addUndirectedEdge(int from, int to, long capacity) {
+      return addEdge(from, to, capacity, capacity);
+    }
+
+    private int addEdge(int from, int to, long capacity, long reverseCapacity) {
+      if (numArcs == this.to.length) {
+        next = Arrays.copyOf(next, 2 * numArcs);
+        this.to = Arrays.copyOf(this.to, 2 * numArcs);
+        cap = Arrays.copyOf(cap, 2 * numArcs);
+        this.capacity = Arrays.copyOf(this.capacity, numArcs);
+      }
+      int id = numArcs / 2;
+      this.capacity[id] = capacity;
+      link(numArcs++, from, to, capacity);
+      link(numArcs++, to, from, reverseCapacity);
+      return id;
+    }
+
+    private void link(int arc, int from, int to, long capacity) {
+      this.to[arc] = to;
+      cap[arc] = capacity;
+      next[arc] = head[from];
+      head[from] = arc;
+    }
+
+    public int from(int edge) {
+      return to[2 * edge + 1];
+    }
+
+    public int to(int edge) {
+      return to[2 * edge];
+    }
+
+    /**
+     * Net flow through the edge from -> to, negative if it goes the other way
+     */
+    public long flow(int edge) {
+      return capacity[edge] - cap[2 * edge];
+    }
+  }
+
   static class GraphMaxFlow {
     final int numVertices;
     int numEdges = 0;
@@ -1,6 +1,7 @@
 package Graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.PriorityQueue;
 
 import Graph.GraphWeighted.Edge;
@@ -13,6 +14,10 @@ public class MinimumSpanningTree {
 
   static ArrayList<Edge> mst;
   static double mstWeight;
+  static int[] arcTo; // Used by mstPrim: arc joining each node to the tree, -1 for the roots
+  static ArrayList<GraphWeightedLong.Edge> mstLong; // Used by mstKruskalLong
+  static long mstWeightLong;
+  static ArrayList<GraphWeightedDouble.Edge> mstDouble; // Used by mstKruskalDouble, and mstWeight
 
   /**
    * @param pQueue
@@ -35,4 +40,81 @@ public class MinimumSpanningTree {
     }
   }
 
+  /**
+   * mstKruskal() with long weights, fills mstLong and mstWeightLong
+   *
+   * @time O(|E| log |E|)
+   */
+  static void mstKruskalLong(PriorityQueue<GraphWeightedLong.Edge> pQueue, int numVertices) {
+    mstLong = new ArrayList<GraphWeightedLong.Edge>(numVertices - 1);
+    UnionFind unionFind = new UnionFind(numVertices);
+    mstWeightLong = 0;
+
+    while (!pQueue.isEmpty() && mstLong.size() < numVertices - 1) {
+      GraphWeightedLong.Edge edge = pQueue.poll();
+      if (!unionFind.connected(edge.from, edge.to)) {
+        unionFind.union(edge.from, edge.to);
+        mstLong.add(edge);
+        mstWeightLong += edge.weight;
+      }
+    }
+  }
+
+  /**
+   * mstKruskal() with double weights, fills mstDouble and mstWeight
+   *
+   * @time O(|E| log |E|)
+   */
+  static void mstKruskalDouble(PriorityQueue<GraphWeightedDouble.Edge> pQueue, int numVertices) {
+    mstDouble = new ArrayList<GraphWeightedDouble.Edge>(numVertices - 1);
+    UnionFind unionFind = new UnionFind(numVertices);
+    mstWeight = 0;
+
+    while (!pQueue.isEmpty() && mstDouble.size() < numVertices - 1) {
+      GraphWeightedDouble.Edge edge = pQueue.poll();
+      if (!unionFind.connected(edge.from, edge.to)) {
+        unionFind.union(edge.from, edge.to);
+        mstDouble.add(edge);
+        mstWeight += edge.weight;
+      }
+    }
+  }
+
+  /**
+   * Prim's algorithm on a frozen undirected graph (both arcs of each edge stored), growing the
+   * tree with an indexed heap whose keys are lowered instead of duplicated. Finds a minimum
+   * spanning forest if the graph is not connected. Fills mstWeight and arcTo.
+   *
+   * @time O(|E| log |V|)
+   */
+  static void mstPrim(GraphWeightedCSR graph) {
+    int n = graph.getNumVertices();
+    int[] offsets = graph.offsets;
+    int[] to = graph.to;
+    int[] weight = graph.weight;
+    arcTo = new int[n];
+    Arrays.fill(arcTo, -1);
+    boolean[] inTree = new boolean[n];
+    IndexedDHeap queue = new IndexedDHeap(n);
+    mstWeight = 0;
+
+    for (int root = 0; root < n; root++) {
+      if (inTree[root]) {
+        continue;
+      }
+      queue.add(root, 0);
+      while (!queue.isEmpty()) {
+        int cur = queue.poll();
+        inTree[cur] = true;
+        mstWeight += queue.priority(cur);
+        for (int arc = offsets[cur]; arc < offsets[cur + 1]; arc++) {
+          int next = to[arc];
+          if (!inTree[next] && queue.addOrDecrease(next, weight[arc])) {
+            arcTo[next] = arc;
+          }
+        }
+      }
+    }
+  }
+
 }
@@ -3,6 +3,7 @@ package Graph;
 import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * @author Juan Martnez (https://www.linkedin.com/in/martinezgjuan)
@@ -211,6 +212,330 @@ public class MiscGraph {
     return false;
   }
 
+  /**
+   * Same as connectedComp(Graph) for a frozen graph. Nodes are marked when pushed so the primitive
+   * stack never holds more than |V| elements.
+   *
+   * @time O(|E| + |V|)
+   */
+  static void connectedComp(GraphCSR graph) {
+    int[] offsets = graph.offsets;
+    int[] targets = graph.targets;
+    compCount = 0;
+    belongsToCC = new int[graph.getNumVertices()];
+    visited = new boolean[graph.getNumVertices()];
+    nodeTo = new int[graph.getNumVertices()];
+    int[] stack = new int[graph.getNumVertices()];
+
+    for (int initialNode = 0; initialNode < graph.getNumVertices(); initialNode++) {
+      if (visited[initialNode]) {
+        continue;
+      }
+      int top = 0;
+      stack[top++] = initialNode;
+      visited[initialNode] = true;
+
+      while (top > 0) {
+        int node = stack[--top];
+        belongsToCC[node] = compCount;
+        for (int arc = offsets[node]; arc < offsets[node + 1]; arc++) {
+          int next = targets[arc];
+          if (!visited[next]) {
+            visited[next] = true;
+            stack[top++] = next;
+            nodeTo[next] = node;
+          }
+        }
+      }
+      compCount++;
+    }
+  }
+
+  /**
+   * Same as connectedComp(GraphCSR) but returning the components instead of filling the static
+   * fields, so it can run concurrently with other queries on the same graph
+   *
+   * @time O(|E| + |V|)
+   */
+  static Components connectedComponents(GraphCSR graph) {
+    int[] offsets = graph.offsets;
+    int[] targets = graph.targets;
+    int count = 0;
+    int[] belongsTo = new int[graph.getNumVertices()];
+    Arrays.fill(belongsTo, -1);
+    int[] stack = new int[graph.getNumVertices()];
+
+    for (int initialNode = 0; initialNode < graph.getNumVertices(); initialNode++) {
+      if (belongsTo[initialNode] != -1) {
+        continue;
+      }
+      int top = 0;
+      stack[top++] = initialNode;
+      belongsTo[initialNode] = count;
+
+      while (top > 0) {
+        int node = stack[--top];
+        for (int arc = offsets[node]; arc < offsets[node + 1]; arc++) {
+          int next = targets[arc];
+          if (belongsTo[next] == -1) {
+            belongsTo[next] = count;
+            stack[top++] = next;
+          }
+        }
+      }
+      count++;
+    }
+    return new Components(count, belongsTo);
+  }
+
+  /**
+   * Same as isBipartite(Graph, boolean) for a frozen graph. Nodes are colored when pushed.
+   *
+   * @time O(|E| + |V|)
+   */
+  static boolean isBipartite(GraphCSR graph, boolean finishCC) {
+    int[] offsets = graph.offsets;
+    int[] targets = graph.targets;
+    boolean[] evenColor = new boolean[graph.getNumVertices()];
+    visited = new boolean[graph.getNumVertices()];
+    nodeTo = new int[graph.getNumVertices()];
+    compCount = 0;
+    belongsToCC = new int[graph.getNumVertices()];
+    int[] stack = new int[graph.getNumVertices()];
+    boolean isBipartite = true;
+
+    for (int initialNode = 0; initialNode < graph.getNumVertices(); initialNode++) {
+      if (visited[initialNode]) {
+        continue;
+      }
+      int top = 0;
+      stack[top++] = initialNode;
+      visited[initialNode] = true;
+
+      while (top > 0) {
+        int curNode = stack[--top];
+        belongsToCC[curNode] = compCount;
+        for (int arc = offsets[curNode]; arc < offsets[curNode + 1]; arc++) {
+          int next = targets[arc];
+          if (!visited[next]) {
+            visited[next] = true;
+            evenColor[next] = !evenColor[curNode]; // Opposite color than the previous node
+            stack[top++] = next;
+            nodeTo[next] = curNode;
+          } else if (evenColor[next] == evenColor[curNode]) {
+            isBipartite = false; // The graph is not bipartite
+            if (!finishCC) {
+              return false;
+            }
+          }
+        }
+      }
+      compCount++;
+    }
+
+    return isBipartite;
+  }
+
+  /**
+   * Same as hasEulerianPathCycle(Graph, boolean) for a frozen graph
+   *
+   * @time O(|V|) if connected and O(|E| + |V|) otherwise
+   */
+  static int hasEulerianPathCycle(GraphCSR graph, boolean guaranteedConnected) {
+    if (!guaranteedConnected) {
+      connectedComp(graph);
+    }
+    int odd = 0;
+    int compWithEdges = -1;
+    boolean severalComps = false;
+
+    for (int node = 0; node < graph.getNumVertices(); node++) {
+      if (graph.degree(node) % 2 != 0) {
+        odd++;
+      }
+      if (!guaranteedConnected && graph.degree(node) > 0) {
+        if (compWithEdges == -1) {
+          compWithEdges = belongsToCC[node];
+        } else if (compWithEdges != belongsToCC[node]) {
+          severalComps = true;
+        }
+      }
+    }
+
+    if (odd == 0 && !severalComps) {
+      return 2;
+    } else if (odd <= 2 && !severalComps) {
+      return 1;
+    } else {
+      return 0;
+    }
+  }
+
+  /**
+   * Whether there is a cycle in the given frozen graph. Directed graphs are checked with a three
+   * color DFS, undirected ones ignore once the edge to the parent.
+   *
+   * @time O(|E| + |V|)
+   */
+  static boolean hasCycle(GraphCSR graph, boolean isDirected) {
+    int[] offsets = graph.offsets;
+    int[] targets = graph.targets;
+    int n = graph.getNumVertices();
+    byte[] state = new byte[n]; // 0 not visited, 1 in the DFS stack, 2 finished
+    int[] nodeTo = new int[n];
+    int[] curArc = new int[n];
+    int[] stack = new int[n];
+    boolean[] skippedParent = new boolean[n];
+
+    for (int initialNode = 0; initialNode < n; initialNode++) {
+      if (state[initialNode] != 0) {
+        continue;
+      }
+      nodeTo[initialNode] = -1;
+      int top = 0;
+      stack[top++] = initialNode;
+      state[initialNode] = 1;
+      curArc[initialNode] = offsets[initialNode];
+
+      while (top > 0) {
+        int node = stack[top - 1];
+        if (curArc[node] == offsets[node + 1]) {
+          state[node] = 2;
+          top--;
+          continue;
+        }
+        int next = targets[curArc[node]++];
+        if (!isDirected && next == nodeTo[node] && !skippedParent[node]) {
+          // Only one of the arcs to the parent is the tree edge itself
+          skippedParent[node] = true;
+          continue;
+        }
+        if (state[next] == 0) {
+          state[next] = 1;
+          nodeTo[next] = node;
+          curArc[next] = offsets[next];
+          stack[top++] = next;
+        } else if (!isDirected || state[next] == 1) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Same as connectedComp(Graph) for a bitset adjacency matrix. Each node finds all its unvisited
+   * neighbors with one AND per word against the bitset of unvisited nodes.
+   *
+   * @time O(|V|^2 / 64)
+   */
+  static void connectedComp(GraphBitset graph) {
+    int words = graph.words;
+    long[] adj = graph.adj;
+    long[] unvisited = graph.allNodes();
+    compCount = 0;
+    belongsToCC = new int[graph.getNumVertices()];
+    visited = new boolean[graph.getNumVertices()];
+    nodeTo = new int[graph.getNumVertices()];
+    int[] queue = new int[graph.getNumVertices()];
+
+    for (int initialNode = 0; initialNode < graph.getNumVertices(); initialNode++) {
+      if (visited[initialNode]) {
+        continue;
+      }
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = initialNode;
+      visited[initialNode] = true;
+      unvisited[initialNode >>> 6] &= ~(1L << initialNode);
+
+      while (head < tail) {
+        int node = queue[head++];
+        belongsToCC[node] = compCount;
+        int row = node * words;
+        for (int w = 0; w < words; w++) {
+          long fresh = adj[row + w] & unvisited[w];
+          if (fresh == 0) {
+            continue;
+          }
+          unvisited[w] &= ~fresh;
+          for (; fresh != 0; fresh &= fresh - 1) {
+            int next = (w << 6) + Long.numberOfTrailingZeros(fresh);
+            visited[next] = true;
+            nodeTo[next] = node;
+            queue[tail++] = next;
+          }
+        }
+      }
+      compCount++;
+    }
+  }
+
+  /**
+   * Same as isBipartite(Graph, boolean) for a bitset adjacency matrix. The colors are also kept as
+   * a bitset, so the conflicts of a node with its already colored neighbors are checked 64 at a
+   * time.
+   *
+   * @time O(|V|^2 / 64)
+   */
+  static boolean isBipartite(GraphBitset graph, boolean finishCC) {
+    int words = graph.words;
+    long[] adj = graph.adj;
+    long[] unvisited = graph.allNodes();
+    long[] odd = new long[words]; // Nodes with the opposite color than the first of their component
+    visited = new boolean[graph.getNumVertices()];
+    nodeTo = new int[graph.getNumVertices()];
+    compCount = 0;
+    belongsToCC = new int[graph.getNumVertices()];
+    int[] queue = new int[graph.getNumVertices()];
+    boolean isBipartite = true;
+
+    for (int initialNode = 0; initialNode < graph.getNumVertices(); initialNode++) {
+      if (visited[initialNode]) {
+        continue;
+      }
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = initialNode;
+      visited[initialNode] = true;
+      unvisited[initialNode >>> 6] &= ~(1L << initialNode);
+
+      while (head < tail) {
+        int curNode = queue[head++];
+        belongsToCC[curNode] = compCount;
+        boolean curOdd = (odd[curNode >>> 6] & (1L << curNode)) != 0;
+        int row = curNode * words;
+        for (int w = 0; w < words; w++) {
+          long neighbors = adj[row + w];
+          if (neighbors == 0) {
+            continue;
+          }
+          long sameColor = curOdd ? odd[w] : ~odd[w];
+          if ((neighbors & ~unvisited[w] & sameColor) != 0) {
+            isBipartite = false; // The graph is not bipartite
+            if (!finishCC) {
+              return false;
+            }
+          }
+          long fresh = neighbors & unvisited[w];
+          unvisited[w] &= ~fresh;
+          if (!curOdd) {
+            odd[w] |= fresh; // Opposite color than the previous node
+          }
+          for (; fresh != 0; fresh &= fresh - 1) {
+            int next = (w << 6) + Long.numberOfTrailingZeros(fresh);
+            visited[next] = true;
+            nodeTo[next] = curNode;
+            queue[tail++] = next;
+          }
+        }
+      }
+      compCount++;
+    }
+
+    return isBipartite;
+  }
+
   /**
    * @time O(|V|^3)
    */
@@ -266,6 +591,41 @@ public class MiscGraph {
     }
   }
 
+  /**
+   * Same as minimax(int, int[][]) on a flat row-major n * n array, tiled for the cache and run
+   * in parallel on the pool. See {@link BlockedFloydWarshall}.
+   *
+   * @time O(|V|^3) split among the threads of the pool
+   */
+  static void minimax(int n, int[] dist, ForkJoinPool pool) {
+    BlockedFloydWarshall.minimax(n, dist, pool);
+  }
+
+  /**
+   * Number of connected components and the component of each node
+   */
+  static class Components {
+    final int count;
+    final int[] belongsTo;
+
+    Components(int count, int[] belongsTo) {
+      this.count = count;
+      this.belongsTo = belongsTo;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public int componentOf(int node) {
+      return belongsTo[node];
+    }
+
+    public boolean connected(int v, int w) {
+      return belongsTo[v] == belongsTo[w];
+    }
+  }
+
   public static void main(String[] args) {
     Graph g = new Graph(8);
 
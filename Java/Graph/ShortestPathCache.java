@@ -0,0 +1,249 @@
+package Graph;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import Graph.GraphWeighted.GraphWE;
+
+/**
+ * Bounded cache of the shortest path trees of one graph, for workloads where a few sources take
+ * most of the queries. Each tree is stored as two int[] (distance and previous node), so a cached
+ * source answers a distance in O(1) and a path in O(path length) instead of running a Dijkstra.
+ * The trees are evicted in least recently used order once their memory goes over the budget.
+ *
+ * Every tree is tagged with the version of the graph it was computed on: when the graph has
+ * changed since (GraphWE.getVersion()) the whole cache is dropped before serving anything. A
+ * GraphWeightedCSR is immutable, so its trees are valid forever. A GraphWE must not change while
+ * a get() is computing a tree on it.
+ *
+ * The Dijkstra of a miss runs outside the lock of the cache, so hits are never blocked by it and
+ * misses of different sources run at the same time. Concurrent misses of the same source wait
+ * for a single computation.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class ShortestPathCache {
+  static final int INF = ShortestPaths.INF;
+  static final long TREE_OVERHEAD = 96; // Bytes of the objects around the two arrays
+
+  private final GraphWE graphWE; // Exactly one of the graphs is not null
+  private final GraphWeightedCSR graphCSR;
+  private final long maxBytes;
+  private final LinkedHashMap<Integer, CachedTree> trees;
+  private final HashMap<Integer, FutureTask<CachedTree>> pending; // Trees being computed
+  private long usedBytes = 0;
+  private int version;
+  private long hits = 0;
+  private long misses = 0;
+
+  /**
+   * @param maxBytes
+   *          Memory budget of the cached trees, about 8 |V| bytes each
+   */
+  public ShortestPathCache(GraphWE graph, long maxBytes) {
+    this(graph, null, maxBytes);
+  }
+
+  public ShortestPathCache(GraphWeightedCSR graph, long maxBytes) {
+    this(null, graph, maxBytes);
+  }
+
+  private ShortestPathCache(GraphWE graphWE, GraphWeightedCSR graphCSR, long maxBytes) {
+    this.graphWE = graphWE;
+    this.graphCSR = graphCSR;
+    this.maxBytes = maxBytes;
+    this.trees = new LinkedHashMap<Integer, CachedTree>(16, 0.75f, true); // Access order
+    this.pending = new HashMap<Integer, FutureTask<CachedTree>>();
+    this.version = graphVersion();
+  }
+
+  private int graphVersion() {
+    return graphWE != null ? graphWE.getVersion() : 0;
+  }
+
+  /**
+   * Tree of the source, from the cache or computed with Dijkstra and cached. A tree bigger than
+   * the whole budget is returned but not cached, and so is a tree whose graph changed while it was
+   * computed.
+   *
+   * @time O(1) if cached, O(|E| log |V|) otherwise
+   */
+  public CachedTree get(final int source) {
+    FutureTask<CachedTree> task;
+    boolean computes = false;
+    synchronized (this) {
+      if (version != graphVersion()) {
+        clear();
+        pending.clear(); // Later misses don't wait for trees of the old graph
+        version = graphVersion();
+      }
+      CachedTree tree = trees.get(source);
+      if (tree != null) {
+        hits++;
+        return tree;
+      }
+      misses++;
+      task = pending.get(source);
+      if (task == null) {
+        final int treeVersion = version;
+        task = new FutureTask<CachedTree>(new Callable<CachedTree>() {
+          public CachedTree call() {
+            return compute(source, treeVersion);
+          }
+        });
+        pending.put(source, task);
+        computes = true;
+      }
+    }
+
+    if (computes) {
+      task.run();
+      synchronized (this) {
+        if (pending.get(source) == task) {
+          pending.remove(source);
+        }
+        CachedTree tree = result(task);
+        if (tree.version == version && tree.bytes() <= maxBytes && !trees.containsKey(source)) {
+          trees.put(source, tree);
+          usedBytes += tree.bytes();
+          Iterator<CachedTree> eldest = trees.values().iterator();
+          while (usedBytes > maxBytes) {
+            usedBytes -= eldest.next().bytes();
+            eldest.remove();
+          }
+        }
+        return tree;
+      }
+    }
+    return result(task);
+  }
+
+  /**
+   * Waits for the task without giving up on interrupts, which are restored afterwards
+   */
+  private static CachedTree result(FutureTask<CachedTree> task) {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          return task.get();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+          }
+          if (e.getCause() instanceof Error) {
+            throw (Error) e.getCause();
+          }
+          throw new IllegalStateException(e.getCause());
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Dijkstra keeping its state in the tree it returns, so it can run in several threads at once
+   */
+  private CachedTree compute(int source, int treeVersion) {
+    ShortestPathTree tree;
+    if (graphCSR != null) {
+      tree = ShortestPaths.dijkstra(graphCSR, source, -1, null);
+    } else {
+      tree = ShortestPaths.dijkstra(graphWE, source, -1, null);
+    }
+    return new CachedTree(source, treeVersion, tree.distTo, tree.nodeTo);
+  }
+
+  /**
+   * Distance from source to dest, INF if unreachable
+   */
+  public int distance(int source, int dest) {
+    return get(source).distanceTo(dest);
+  }
+
+  /**
+   * Nodes of the path from source to dest, or null if unreachable
+   */
+  public ArrayDeque<Integer> pathTo(int source, int dest) {
+    return get(source).pathTo(dest);
+  }
+
+  public synchronized void clear() {
+    trees.clear();
+    usedBytes = 0;
+  }
+
+  public synchronized int size() {
+    return trees.size();
+  }
+
+  public synchronized long getUsedBytes() {
+    return usedBytes;
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Immutable shortest path tree, safe to read from any thread after get() returns it
+   */
+  static class CachedTree {
+    final int source;
+    final int version; // Of the graph it was computed on
+    private final int[] distTo;
+    private final int[] nodeTo;
+
+    CachedTree(int source, int version, int[] distTo, int[] nodeTo) {
+      this.source = source;
+      this.version = version;
+      this.distTo = distTo;
+      this.nodeTo = nodeTo;
+    }
+
+    public int getSource() {
+      return source;
+    }
+
+    public int getVersion() {
+      return version;
+    }
+
+    public int distanceTo(int node) {
+      return distTo[node];
+    }
+
+    /**
+     * @time O(path length)
+     */
+    public ArrayDeque<Integer> pathTo(int dest) {
+      if (distTo[dest] == INF) {
+        return null;
+      }
+      ArrayDeque<Integer> path = new ArrayDeque<Integer>();
+      for (int node = dest; node != -1; node = nodeTo[node]) {
+        path.addFirst(node);
+      }
+      return path;
+    }
+
+    long bytes() {
+      return 8L * distTo.length + TREE_OVERHEAD;
+    }
+  }
+
+}
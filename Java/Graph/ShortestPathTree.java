@@ -0,0 +1,148 @@
+package Graph;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Result of a single source query (BFS, DFS or shortest paths) returned by the versions that take
+ * a {@link Pool} instead of filling static fields, so several queries can run at the same time on
+ * a shared read-only graph. The arrays come from the pool and are given back with release(), after
+ * which the tree must not be used anymore. A tree that is never released is simply collected.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class ShortestPathTree {
+  static final int INF = ShortestPaths.INF;
+
+  int source;
+  final int[] distTo; // INF if unreachable
+  final int[] nodeTo; // Previous node in the path, -1 for the source and unreachable nodes
+  final int[] arcTo; // Arc reaching the node in the weighted versions, -1 if none
+  final int[] work; // Scratch queue or stack of the algorithm
+  final int[] cursor; // Next arc to explore of each node in the DFS stack
+  private IndexedDHeap heap; // Created by the first weighted query using this tree
+  private final Pool pool;
+  private boolean released = false; // In the free queue of the pool
+
+  private ShortestPathTree(int numVertices, Pool pool) {
+    this.distTo = new int[numVertices];
+    this.nodeTo = new int[numVertices];
+    this.arcTo = new int[numVertices];
+    this.work = new int[numVertices];
+    this.cursor = new int[numVertices];
+    this.pool = pool;
+  }
+
+  /**
+   * Tree from a pool, or a new one if the pool is <code>null</code>, with every node but the source
+   * unreachable
+   */
+  static ShortestPathTree acquire(Pool pool, int numVertices, int source) {
+    ShortestPathTree tree = null;
+    if (pool != null) {
+      if (pool.numVertices != numVertices) {
+        throw new IllegalArgumentException("Pool for " + pool.numVertices + " nodes used on a "
+            + numVertices + " nodes graph");
+      }
+      tree = pool.free.poll();
+    }
+    if (tree == null) {
+      tree = new ShortestPathTree(numVertices, pool);
+    }
+    tree.released = false;
+    tree.source = source;
+    Arrays.fill(tree.distTo, INF);
+    Arrays.fill(tree.nodeTo, -1);
+    Arrays.fill(tree.arcTo, -1);
+    tree.distTo[source] = 0;
+    return tree;
+  }
+
+  public int getSource() {
+    return source;
+  }
+
+  public int getNumVertices() {
+    return distTo.length;
+  }
+
+  public boolean hasPathTo(int node) {
+    return distTo[node] != INF;
+  }
+
+  /**
+   * Distance (number of arcs in BFS, depth in DFS) from the source, INF if unreachable
+   */
+  public int distanceTo(int node) {
+    return distTo[node];
+  }
+
+  /**
+   * Previous node in the path from the source, -1 for the source or if unreachable
+   */
+  public int nodeTo(int node) {
+    return nodeTo[node];
+  }
+
+  /**
+   * Last arc of the path from the source in the weighted versions, -1 otherwise
+   */
+  public int arcTo(int node) {
+    return arcTo[node];
+  }
+
+  /**
+   * Returns the nodes of the path from the source to dest or null if it doesn't exist
+   */
+  public ArrayDeque<Integer> pathTo(int dest) {
+    if (distTo[dest] == INF)
+      return null;
+
+    ArrayDeque<Integer> path = new ArrayDeque<Integer>();
+    for (int node = dest; node != -1; node = nodeTo[node])
+      path.addFirst(node);
+    return path;
+  }
+
+  /**
+   * Empty heap for the weighted queries, reused across the queries that get this tree
+   */
+  IndexedDHeap heap() {
+    if (heap == null) {
+      heap = new IndexedDHeap(distTo.length);
+    }
+    return heap;
+  }
+
+  /**
+   * Gives the arrays back to the pool
+   *
+   * @throws IllegalStateException
+   *           if the tree was already released, as two queries would then share its arrays
+   */
+  public synchronized void release() {
+    if (released) {
+      throw new IllegalStateException("Tree of source " + source + " released twice");
+    }
+    released = true;
+    if (pool != null) {
+      pool.free.offer(this);
+    }
+  }
+
+  /**
+   * Thread-safe pool of trees for the graphs with a given number of nodes. Reusing them avoids
+   * allocating five |V| arrays per query.
+   */
+  static class Pool {
+    final int numVertices;
+    private final ConcurrentLinkedQueue<ShortestPathTree> free;
+
+    Pool(int numVertices) {
+      this.numVertices = numVertices;
+      this.free = new ConcurrentLinkedQueue<ShortestPathTree>();
+    }
+  }
+
+}
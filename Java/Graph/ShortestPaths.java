@@ -4,11 +4,10 @@ import static Graph.TopologicalSort.topSortKahn;
 
 import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
 
 import Graph.GraphWeighted.Edge;
 import Graph.GraphWeighted.GraphWE;
-import Other.PairCode.Pair;
 
 /**
  * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
@@ -17,6 +16,7 @@ public class ShortestPaths {
 
   static int[] distanceTo;
   static Edge[] edgeTo;
+  static int[] arcTo; // Used instead of edgeTo by the GraphWeightedCSR versions, -1 if none
   static final int INF = Integer.MAX_VALUE / 2;
 
   /**
@@ -36,30 +36,62 @@ public class ShortestPaths {
     edgeTo = new Edge[graph.getNumVertices()];
     distanceTo = new int[graph.getNumVertices()];
     Arrays.fill(distanceTo, INF);
-    PriorityQueue<Pair<Integer, Integer>> queue = new PriorityQueue<Pair<Integer, Integer>>();
+    IndexedDHeap queue = new IndexedDHeap(graph.getNumVertices());
     distanceTo[source] = 0;
 
-    queue.add(new Pair<Integer, Integer>(0, source));
+    queue.add(source, 0);
 
     while (!queue.isEmpty()) {
-      Pair<Integer, Integer> elem = queue.poll();
-      int cur = elem.second;
+      int cur = queue.poll();
       if (cur == dest) {
         break;
       }
-      if (elem.first > distanceTo[cur]) {
-        continue;
-      }
       for (Edge edge : graph.adj(cur)) {
         if (distanceTo[edge.to] > distanceTo[edge.from] + edge.weight) {
           distanceTo[edge.to] = distanceTo[edge.from] + edge.weight;
           edgeTo[edge.to] = edge;
-          queue.add(new Pair<Integer, Integer>(distanceTo[edge.to], edge.to));
+          queue.addOrDecrease(edge.to, distanceTo[edge.to]);
         }
       }
     }
   }
 
+  /**
+   * Same as dijkstra(GraphWE, int, int) but returning the result instead of filling the static
+   * fields, so it can run concurrently with other queries on the same graph. The edges have no
+   * ids, so only distTo and nodeTo are filled.
+   *
+   * @param dest
+   *          Stops once its distance is final, -1 to compute all of them
+   * @param pool
+   *          Pool the tree is taken from, or <code>null</code> to allocate a new one
+   * @time O(|E| log |V|)
+   */
+  static ShortestPathTree dijkstra(GraphWE graph, int source, int dest,
+      ShortestPathTree.Pool pool) {
+    ShortestPathTree tree = ShortestPathTree.acquire(pool, graph.getNumVertices(), source);
+    int[] distTo = tree.distTo;
+    IndexedDHeap queue = tree.heap();
+
+    queue.add(source, 0);
+
+    while (!queue.isEmpty()) {
+      int cur = queue.poll();
+      if (cur == dest) {
+        break;
+      }
+      for (Edge edge : graph.adj(cur)) {
+        if (distTo[edge.to] > distTo[cur] + edge.weight) {
+          distTo[edge.to] = distTo[cur] + edge.weight;
+          tree.nodeTo[edge.to] = cur;
+          queue.addOrDecrease(edge.to, distTo[edge.to]);
+        }
+      }
+    }
+    queue.clear();
+    return tree;
+  }
+
   /**
    * Can have negative edges. Can find longest path by negating weights. Can be used to schedule
    * tasks by obtaining the longest path.
@@ -88,9 +120,9 @@ public class ShortestPaths {
   /**
    * Variation of Bellman's algorithm known as Shortest Path Faster Algorithm. Can have negative
    * edges. Can find longest path by negating weights. Doesn't work with negative cycles but can be
-   * used to detect them by running allowing |V| + 1 iterations and checking if it reaches it. Can
-   * be used to schedule tasks by obtaining the longest path. Beware of overflows with the initial
-   * maximum value!
+   * used to detect them by running allowing |V| + 1 iterations and checking if it reaches it
+   * ({@link BellmanFord} finds the cycle itself). Can be used to schedule tasks by obtaining the
+   * longest path. Beware of overflows with the initial maximum value!
    * 
    * @time O(|V| * |E|) but typical case is O(|V| + |E|)
    * @tested UVA_558, UVA_10986
@@ -102,15 +134,16 @@ public class ShortestPaths {
     distanceTo[source] = 0;
 
     boolean[] inQueue = new boolean[graph.getNumVertices()];
-    ArrayDeque<Integer> nodes = new ArrayDeque<Integer>();
-    ArrayDeque<Integer> nodes2 = new ArrayDeque<Integer>();
-    nodes.add(source);
+    int[] nodes = new int[graph.getNumVertices()];
+    int[] nodes2 = new int[graph.getNumVertices()];
+    int size = 0;
+    nodes[size++] = source;
 
     int times = 0;
-    while (!nodes.isEmpty() && times++ < graph.getNumVertices() - 1) {
-
-      while (!nodes.isEmpty()) {
-        int act = nodes.removeFirst();
+    while (size > 0 && times++ < graph.getNumVertices() - 1) {
+      int size2 = 0;
+      for (int i = 0; i < size; i++) {
+        int act = nodes[i];
         inQueue[act] = false;
 
         for (Edge edge : graph.adj(act)) {
@@ -119,17 +152,473 @@ public class ShortestPaths {
             edgeTo[edge.to] = edge;
 
             if (!inQueue[edge.to]) {
-              nodes2.add(edge.to);
+              nodes2[size2++] = edge.to;
               inQueue[edge.to] = true;
             }
           }
         }
       }
+      int[] aux = nodes;
       nodes = nodes2;
-      nodes2 = new ArrayDeque<Integer>();
+      nodes2 = aux;
+      size = size2;
     }
   }
 
+  /**
+   * Dijkstra's algorithm on the arrays of a frozen weighted graph, without any specific destination
+   */
+  static void dijkstra(GraphWeightedCSR graph, int source) {
+    dijkstra(graph, source, -1);
+  }
+
+  /**
+   * Same as dijkstra(GraphWE, int, int) but relaxing the arcs as a linear scan over the parallel
+   * to/weight arrays. Fills distanceTo and arcTo.
+   *
+   * @time O(|E| log |V|)
+   */
+  static void dijkstra(GraphWeightedCSR graph, int source, int dest) {
+    int[] offsets = graph.offsets;
+    int[] to = graph.to;
+    int[] weight = graph.weight;
+    arcTo = new int[graph.getNumVertices()];
+    distanceTo = new int[graph.getNumVertices()];
+    Arrays.fill(arcTo, -1);
+    Arrays.fill(distanceTo, INF);
+    IndexedDHeap queue = new IndexedDHeap(graph.getNumVertices());
+    distanceTo[source] = 0;
+
+    queue.add(source, 0);
+
+    while (!queue.isEmpty()) {
+      int cur = queue.poll();
+      if (cur == dest) {
+        break;
+      }
+      for (int arc = offsets[cur]; arc < offsets[cur + 1]; arc++) {
+        int next = to[arc];
+        if (distanceTo[next] > distanceTo[cur] + weight[arc]) {
+          distanceTo[next] = distanceTo[cur] + weight[arc];
+          arcTo[next] = arc;
+          queue.addOrDecrease(next, distanceTo[next]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Largest weight for which dijkstraSmallWeights() uses Dial's buckets instead of a radix heap
+   */
+  static final int DIAL_MAX_WEIGHT = 1 << 10;
+
+  /**
+   * Dijkstra's algorithm for small non-negative integer weights. Uses dijkstraDial() when the
+   * maximum weight of the graph is at most DIAL_MAX_WEIGHT, dijkstraRadix() otherwise, and falls
+   * back to dijkstra() if there are negative weights. Fills distanceTo and arcTo.
+   */
+  static void dijkstraSmallWeights(GraphWeightedCSR graph, int source, int dest) {
+    if (graph.getMinWeight() < 0) {
+      dijkstra(graph, source, dest);
+    } else if (graph.getMaxWeight() <= DIAL_MAX_WEIGHT) {
+      dijkstraDial(graph, source, dest);
+    } else {
+      dijkstraRadix(graph, source, dest);
+    }
+  }
+
+  /**
+   * Dial's algorithm: Dijkstra with a bucket per distance instead of a heap. As every distance in
+   * the queue is between the current one and the current one plus the maximum weight C, C + 1
+   * buckets used circularly are enough. Buckets are doubly linked lists over int arrays, so a node
+   * whose distance is lowered is moved instead of duplicated. Only non-negative weights.
+   *
+   * @time O(|E| + |V| * C)
+   */
+  static void dijkstraDial(GraphWeightedCSR graph, int source, int dest) {
+    int n = graph.getNumVertices();
+    int[] offsets = graph.offsets;
+    int[] to = graph.to;
+    int[] weight = graph.weight;
+    arcTo = new int[n];
+    distanceTo = new int[n];
+    Arrays.fill(arcTo, -1);
+    Arrays.fill(distanceTo, INF);
+
+    int numBuckets = graph.getMaxWeight() + 1;
+    int[] head = new int[numBuckets];
+    int[] next = new int[n];
+    int[] prev = new int[n];
+    boolean[] queued = new boolean[n];
+    Arrays.fill(head, -1);
+
+    distanceTo[source] = 0;
+    queued[source] = true;
+    next[source] = prev[source] = -1;
+    head[0] = source;
+    int size = 1;
+
+    for (int dist = 0; size > 0; dist++) {
+      int bucket = dist % numBuckets;
+      while (head[bucket] != -1) {
+        int cur = head[bucket];
+        head[bucket] = next[cur];
+        if (next[cur] != -1) {
+          prev[next[cur]] = -1;
+        }
+        queued[cur] = false;
+        size--;
+        if (cur == dest) {
+          return;
+        }
+        for (int arc = offsets[cur]; arc < offsets[cur + 1]; arc++) {
+          int node = to[arc];
+          int newDist = dist + weight[arc];
+          if (distanceTo[node] <= newDist) {
+            continue;
+          }
+          if (queued[node]) { // Unlink it from its current bucket
+            if (prev[node] != -1) {
+              next[prev[node]] = next[node];
+            } else {
+              head[distanceTo[node] % numBuckets] = next[node];
+            }
+            if (next[node] != -1) {
+              prev[next[node]] = prev[node];
+            }
+          } else {
+            queued[node] = true;
+            size++;
+          }
+          distanceTo[node] = newDist;
+          arcTo[node] = arc;
+          int b = newDist % numBuckets;
+          prev[node] = -1;
+          next[node] = head[b];
+          if (head[b] != -1) {
+            prev[head[b]] = node;
+          }
+          head[b] = node;
+        }
+      }
+    }
+  }
+
+  /**
+   * Dijkstra with a radix heap, which relies on the extracted distances never decreasing. Bucket
+   * i holds the entries whose distance first differs from the last extracted one in bit i - 1, so
+   * each entry moves down at most 32 times. Entries are packed as (distance << 32 | node) in
+   * growing long arrays and stale ones are skipped. Only non-negative weights.
+   *
+   * @time O(|E| + |V| log C)
+   */
+  static void dijkstraRadix(GraphWeightedCSR graph, int source, int dest) {
+    int n = graph.getNumVertices();
+    int[] offsets = graph.offsets;
+    int[] to = graph.to;
+    int[] weight = graph.weight;
+    arcTo = new int[n];
+    distanceTo = new int[n];
+    Arrays.fill(arcTo, -1);
+    Arrays.fill(distanceTo, INF);
+
+    long[][] buckets = new long[33][];
+    int[] sizes = new int[33];
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new long[4];
+    }
+    int last = 0;
+    int size = 1;
+    distanceTo[source] = 0;
+    buckets[0][sizes[0]++] = source;
+
+    while (size > 0) {
+      if (sizes[0] == 0) { // Redistribute the first non-empty bucket around its minimum
+        int i = 1;
+        while (sizes[i] == 0) {
+          i++;
+        }
+        long[] bucket = buckets[i];
+        int count = sizes[i];
+        sizes[i] = 0;
+        last = Integer.MAX_VALUE;
+        for (int j = 0; j < count; j++) {
+          last = Math.min(last, (int) (bucket[j] >>> 32));
+        }
+        for (int j = 0; j < count; j++) {
+          int dist = (int) (bucket[j] >>> 32);
+          int b = dist == last ? 0 : 32 - Integer.numberOfLeadingZeros(dist ^ last);
+          if (sizes[b] == buckets[b].length) {
+            buckets[b] = Arrays.copyOf(buckets[b], 2 * sizes[b]);
+          }
+          buckets[b][sizes[b]++] = bucket[j];
+        }
+      }
+      long entry = buckets[0][--sizes[0]];
+      size--;
+      int cur = (int) entry;
+      if ((int) (entry >>> 32) != distanceTo[cur]) {
+        continue; // Stale entry
+      }
+      if (cur == dest) {
+        return;
+      }
+      for (int arc = offsets[cur]; arc < offsets[cur + 1]; arc++) {
+        int node = to[arc];
+        int newDist = last + weight[arc];
+        if (distanceTo[node] <= newDist) {
+          continue;
+        }
+        distanceTo[node] = newDist;
+        arcTo[node] = arc;
+        int b = newDist == last ? 0 : 32 - Integer.numberOfLeadingZeros(newDist ^ last);
+        if (sizes[b] == buckets[b].length) {
+          buckets[b] = Arrays.copyOf(buckets[b], 2 * sizes[b]);
+        }
+        buckets[b][sizes[b]++] = ((long) newDist << 32) | node;
+        size++;
+      }
+    }
+  }
+
+  /**
+   * Same as dijkstra(GraphWeightedCSR, int, int) but returning the result instead of filling the
+   * static fields, so it can run concurrently with other queries on the same graph
+   *
+   * @param dest
+   *          Stops once its distance is final, -1 to compute all of them
+   * @param pool
+   *          Pool the tree is taken from, or <code>null</code> to allocate a new one
+   * @time O(|E| log |V|)
+   */
+  static ShortestPathTree dijkstra(GraphWeightedCSR graph, int source, int dest,
+      ShortestPathTree.Pool pool) {
+    int[] offsets = graph.offsets;
+    int[] to = graph.to;
+    int[] weight = graph.weight;
+    ShortestPathTree tree = ShortestPathTree.acquire(pool, graph.getNumVertices(), source);
+    int[] distTo = tree.distTo;
+    IndexedDHeap queue = tree.heap();
+
+    queue.add(source, 0);
+
+    while (!queue.isEmpty()) {
+      int cur = queue.poll();
+      if (cur == dest) {
+        break;
+      }
+      for (int arc = offsets[cur]; arc < offsets[cur + 1]; arc++) {
+        int next = to[arc];
+        if (distTo[next] > distTo[cur] + weight[arc]) {
+          distTo[next] = distTo[cur] + weight[arc];
+          tree.arcTo[next] = arc;
+          tree.nodeTo[next] = cur;
+          queue.addOrDecrease(next, distTo[next]);
+        }
+      }
+    }
+    queue.clear();
+    return tree;
+  }
+
+  /**
+   * Dijkstra on a consistent view of a GraphDynamic, while the writer keeps updating the graph.
+   * The arcs have no ids, so only distTo and nodeTo are filled.
+   *
+   * @param dest
+   *          Stops once its distance is final, -1 to compute all of them
+   * @param pool
+   *          Pool the tree is taken from, or <code>null</code> to allocate a new one
+   * @time O(|E| log |V| + delta log delta)
+   */
+  static ShortestPathTree dijkstra(GraphDynamic.Snapshot graph, int source, int dest,
+      ShortestPathTree.Pool pool) {
+    ShortestPathTree tree = ShortestPathTree.acquire(pool, graph.getNumVertices(), source);
+    GraphDynamic.Arcs arcs = new GraphDynamic.Arcs();
+    int[] distTo = tree.distTo;
+    IndexedDHeap queue = tree.heap();
+
+    queue.add(source, 0);
+
+    while (!queue.isEmpty()) {
+      int cur = queue.poll();
+      if (cur == dest) {
+        break;
+      }
+      graph.arcs(cur, arcs);
+      for (int i = 0; i < arcs.size(); i++) {
+        int next = arcs.to(i);
+        if (distTo[next] > distTo[cur] + arcs.weight(i)) {
+          distTo[next] = distTo[cur] + arcs.weight(i);
+          tree.nodeTo[next] = cur;
+          queue.addOrDecrease(next, distTo[next]);
+        }
+      }
+    }
+    queue.clear();
+    return tree;
+  }
+
+  /**
+   * Parallel delta-stepping on the threads of the pool, with the same distances as
+   * dijkstra(GraphWeightedCSR, int). Fills distanceTo and arcTo. Build a {@link DeltaStepping}
+   * once to reuse its workspace across queries.
+   *
+   * @param delta
+   *          Width of the buckets, see DeltaStepping.defaultDelta()
+   * @time O(|E| + |V| + L / delta) work for max distance L
+   */
+  static void deltaStepping(GraphWeightedCSR graph, int source, int delta, ForkJoinPool pool) {
+    ShortestPathTree tree = new DeltaStepping(graph, delta, pool).search(source, null);
+    distanceTo = tree.distTo;
+    arcTo = tree.arcTo;
+  }
+
+  /**
+   * Same as acyclicSP(GraphWE, int) on a frozen weighted graph
+   *
+   * @time O(|V| + |E|)
+   */
+  static void acyclicSP(GraphWeightedCSR graph, int source) {
+    int[] offsets = graph.offsets;
+    int[] to = graph.to;
+    int[] weight = graph.weight;
+    arcTo = new int[graph.getNumVertices()];
+    distanceTo = new int[graph.getNumVertices()];
+
+    int[] topSort = topSortKahn(graph);
+
+    Arrays.fill(arcTo, -1);
+    Arrays.fill(distanceTo, INF);
+    distanceTo[source] = 0;
+
+    for (int i = 0; i < graph.getNumVertices(); i++) {
+      int cur = topSort[i];
+      if (distanceTo[cur] == INF) {
+        continue;
+      }
+      for (int arc = offsets[cur]; arc < offsets[cur + 1]; arc++) {
+        int next = to[arc];
+        if (distanceTo[next] > distanceTo[cur] + weight[arc]) {
+          distanceTo[next] = distanceTo[cur] + weight[arc];
+          arcTo[next] = arc;
+        }
+      }
+    }
+  }
+
+  /**
+   * Same as bellmanFord(GraphWE, int) on a frozen weighted graph. As every node is at most once
+   * in each round, both rounds are int[] of size |V| that are swapped instead of reallocated.
+   *
+   * @time O(|V| * |E|) but typical case is O(|V| + |E|)
+   */
+  static void bellmanFord(GraphWeightedCSR graph, int source) {
+    int[] offsets = graph.offsets;
+    int[] to = graph.to;
+    int[] weight = graph.weight;
+    arcTo = new int[graph.getNumVertices()];
+    distanceTo = new int[graph.getNumVertices()];
+    Arrays.fill(arcTo, -1);
+    Arrays.fill(distanceTo, INF);
+    distanceTo[source] = 0;
+
+    boolean[] inQueue = new boolean[graph.getNumVertices()];
+    int[] nodes = new int[graph.getNumVertices()];
+    int[] nodes2 = new int[graph.getNumVertices()];
+    int size = 0;
+    nodes[size++] = source;
+
+    int times = 0;
+    while (size > 0 && times++ < graph.getNumVertices() - 1) {
+      int size2 = 0;
+      for (int i = 0; i < size; i++) {
+        int act = nodes[i];
+        inQueue[act] = false;
+
+        for (int arc = offsets[act]; arc < offsets[act + 1]; arc++) {
+          int next = to[arc];
+          if (distanceTo[next] > distanceTo[act] + weight[arc]) {
+            distanceTo[next] = distanceTo[act] + weight[arc];
+            arcTo[next] = arc;
+
+            if (!inQueue[next]) {
+              nodes2[size2++] = next;
+              inQueue[next] = true;
+            }
+          }
+        }
+      }
+      int[] aux = nodes;
+      nodes = nodes2;
+      nodes2 = aux;
+      size = size2;
+    }
+  }
+
+  /**
+   * Dijkstra's algorithm reading the arcs directly from the mapped file. Fills distanceTo and
+   * arcTo.
+   *
+   * @time O(|E| log |V|)
+   */
+  static void dijkstra(GraphMapped graph, int source, int dest) {
+    arcTo = new int[graph.getNumVertices()];
+    distanceTo = new int[graph.getNumVertices()];
+    Arrays.fill(arcTo, -1);
+    Arrays.fill(distanceTo, INF);
+    IndexedDHeap queue = new IndexedDHeap(graph.getNumVertices());
+    distanceTo[source] = 0;
+
+    queue.add(source, 0);
+
+    while (!queue.isEmpty()) {
+      int cur = queue.poll();
+      if (cur == dest) {
+        break;
+      }
+      int end = graph.end(cur);
+      for (int arc = graph.start(cur); arc < end; arc++) {
+        int next = graph.target(arc);
+        if (distanceTo[next] > distanceTo[cur] + graph.weight(arc)) {
+          distanceTo[next] = distanceTo[cur] + graph.weight(arc);
+          arcTo[next] = arc;
+          queue.addOrDecrease(next, distanceTo[next]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the nodes of the path from the source to dest after running
+   * dijkstra(GraphMapped, int, int), or null if it doesn't exist
+   */
+  static ArrayDeque<Integer> pathTo(GraphMapped graph, int dest) {
+    if (distanceTo[dest] == INF)
+      return null;
+
+    ArrayDeque<Integer> path = new ArrayDeque<Integer>();
+    path.addFirst(dest);
+    for (int arc = arcTo[dest]; arc != -1; arc = arcTo[graph.from(arc)])
+      path.addFirst(graph.from(arc));
+    return path;
+  }
+
+  /**
+   * Returns the nodes of the path from the source to dest after running one of the
+   * GraphWeightedCSR versions, or null if it doesn't exist
+   */
+  static ArrayDeque<Integer> pathTo(GraphWeightedCSR graph, int dest) {
+    if (distanceTo[dest] == INF)
+      return null;
+
+    ArrayDeque<Integer> path = new ArrayDeque<Integer>();
+    path.addFirst(dest);
+    for (int arc = arcTo[dest]; arc != -1; arc = arcTo[graph.from(arc)])
+      path.addFirst(graph.from(arc));
+    return path;
+  }
+
   /**
    * Returns the path from the source to dest or null if it doesn't exist
    */
@@ -163,6 +652,16 @@ public class ShortestPaths {
     }
   }
 
+  /**
+   * Same as floydWarshall(int, int[][], int[][]) on flat row-major n * n arrays, tiled for the
+   * cache and run in parallel on the pool. See {@link BlockedFloydWarshall}.
+   *
+   * @time O(|V|^3) split among the threads of the pool
+   */
+  static void floydWarshall(int n, int[] dist, int[] nodeTo, ForkJoinPool pool) {
+    BlockedFloydWarshall.shortestPaths(n, dist, nodeTo, pool);
+  }
+
   /**
    * Returns a path after running the Floyd Warshall algorithm
    */
@@ -182,4 +681,23 @@ public class ShortestPaths {
     return res;
   }
 
+  /**
+   * Returns a path after running floydWarshall(int, int[], int[], ForkJoinPool)
+   */
+  static ArrayDeque<Integer> pathFloydW(int n, int from, int to, int[] dist, int[] nodeTo) {
+    if (dist[from * n + to] == INF)
+      return null;
+
+    ArrayDeque<Integer> res = new ArrayDeque<Integer>();
+    int act = to;
+
+    while (act != from) {
+      res.addFirst(act);
+      act = nodeTo[from * n + act];
+    }
+    res.addFirst(act);
+
+    return res;
+  }
+
 }
@@ -0,0 +1,114 @@
+package Graph;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import Graph.GraphWeightedLong.Edge;
+import Graph.GraphWeightedLong.GraphWE;
+
+/**
+ * Single source shortest paths of ShortestPaths specialized for long weights, for costs whose
+ * sums overflow an int. Same algorithms and results, in the static fields of this class.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class ShortestPathsLong {
+
+  static long[] distanceTo;
+  static Edge[] edgeTo;
+  static final long INF = Long.MAX_VALUE / 2;
+
+  /**
+   * Disjkstra's algorithms without any specific destination node
+   */
+  static void dijkstra(GraphWE graph, int source) {
+    dijkstra(graph, source, -1);
+  }
+
+  /**
+   * Performance guaranteed only with non-negative edges.
+   *
+   * @time O(|E| log |V|)
+   */
+  static void dijkstra(GraphWE graph, int source, int dest) {
+    edgeTo = new Edge[graph.getNumVertices()];
+    distanceTo = new long[graph.getNumVertices()];
+    Arrays.fill(distanceTo, INF);
+    IndexedDHeap queue = new IndexedDHeap(graph.getNumVertices());
+    distanceTo[source] = 0;
+
+    queue.add(source, 0);
+
+    while (!queue.isEmpty()) {
+      int cur = queue.poll();
+      if (cur == dest) {
+        break;
+      }
+      for (Edge edge : graph.adj(cur)) {
+        if (distanceTo[edge.to] > distanceTo[edge.from] + edge.weight) {
+          distanceTo[edge.to] = distanceTo[edge.from] + edge.weight;
+          edgeTo[edge.to] = edge;
+          queue.addOrDecrease(edge.to, distanceTo[edge.to]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Shortest Path Faster Algorithm as ShortestPaths.bellmanFord(). Can have negative edges, stops
+   * after |V| - 1 rounds if there is a negative cycle.
+   *
+   * @time O(|V| * |E|) but typical case is O(|V| + |E|)
+   */
+  static void bellmanFord(GraphWE graph, int source) {
+    edgeTo = new Edge[graph.getNumVertices()];
+    distanceTo = new long[graph.getNumVertices()];
+    Arrays.fill(distanceTo, INF);
+    distanceTo[source] = 0;
+
+    boolean[] inQueue = new boolean[graph.getNumVertices()];
+    int[] nodes = new int[graph.getNumVertices()];
+    int[] nodes2 = new int[graph.getNumVertices()];
+    int size = 0;
+    nodes[size++] = source;
+
+    int times = 0;
+    while (size > 0 && times++ < graph.getNumVertices() - 1) {
+      int size2 = 0;
+      for (int i = 0; i < size; i++) {
+        int act = nodes[i];
+        inQueue[act] = false;
+
+        for (Edge edge : graph.adj(act)) {
+          if (distanceTo[edge.to] > distanceTo[edge.from] + edge.weight) {
+            distanceTo[edge.to] = distanceTo[edge.from] + edge.weight;
+            edgeTo[edge.to] = edge;
+
+            if (!inQueue[edge.to]) {
+              nodes2[size2++] = edge.to;
+              inQueue[edge.to] = true;
+            }
+          }
+        }
+      }
+      int[] aux = nodes;
+      nodes = nodes2;
+      nodes2 = aux;
+      size = size2;
+    }
+  }
+
+  /**
+   * Returns the path from the source to dest or null if it doesn't exist
+   */
+  static ArrayDeque<Edge> pathTo(int dest) {
+    ArrayDeque<Edge> path = new ArrayDeque<Edge>();
+    if (distanceTo[dest] == INF)
+      return null;
+
+    for (Edge edge = edgeTo[dest]; edge != null; edge = edgeTo[edge.from])
+      path.addFirst(edge);
+    return path;
+  }
+
+}
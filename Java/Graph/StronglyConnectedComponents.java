@@ -63,6 +63,168 @@ public class StronglyConnectedComponents {
 		countSCC++;		
 	}
 	
+	/**
+	 * Iterative version of tarjanSCC for frozen graphs. The recursion is replaced by primitive
+	 * stacks holding the node and its current arc, so it neither unboxes neighbors nor overflows
+	 * the call stack on long paths. Fills the same visited, low, id and countSCC fields.
+	 */
+	static void tarjanSCC(GraphCSR graph) {
+		int n = graph.getNumVertices();
+		int[] offsets = graph.offsets;
+		int[] targets = graph.targets;
+		visited = new boolean[n];
+		low = new int[n];
+		step = 0;
+		id = new int[n];
+		countSCC = 0;
+
+		int[] sccStack = new int[n];
+		int sccTop = 0;
+		int[] callStack = new int[n];
+		int[] curArc = new int[n];	// Next arc to explore of each node in the call stack
+		int[] min = new int[n];		// Lowest step reachable found so far by each node in the call stack
+
+		for (int i = 0; i < n; i++) {
+			if(visited[i]) {
+				continue;
+			}
+			int top = 0;
+			visited[i] = true;
+			low[i] = min[i] = step++;
+			curArc[i] = offsets[i];
+			sccStack[sccTop++] = i;
+			callStack[top++] = i;
+
+			while (top > 0) {
+				int cur = callStack[top - 1];
+				if (curArc[cur] < offsets[cur + 1]) {
+					int next = targets[curArc[cur]++];
+					if(!visited[next]) {
+						visited[next] = true;
+						low[next] = min[next] = step++;
+						curArc[next] = offsets[next];
+						sccStack[sccTop++] = next;
+						callStack[top++] = next;
+					} else {
+						min[cur] = Math.min(min[cur], low[next]);
+					}
+					continue;
+				}
+
+				top--;
+				if(min[cur] < low[cur]) {
+					low[cur] = min[cur];
+				} else {
+					int nodeSCC;
+					do {
+						nodeSCC = sccStack[--sccTop];
+						id[nodeSCC] = countSCC;
+						low[nodeSCC] = n;
+					} while (nodeSCC != cur);
+					countSCC++;
+				}
+				if (top > 0) {
+					int parent = callStack[top - 1];
+					min[parent] = Math.min(min[parent], low[cur]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Iterative tarjanSCC for compressed graphs. Each node in the call stack keeps where the
+	 * decoding of its adjacency list stopped, and it is resumed when the DFS comes back to it.
+	 */
+	static void tarjanSCC(GraphCompressed graph) {
+		int n = graph.getNumVertices();
+		GraphCompressed.NeighborIterator it = graph.iterator();
+		visited = new boolean[n];
+		low = new int[n];
+		step = 0;
+		id = new int[n];
+		countSCC = 0;
+
+		int[] sccStack = new int[n];
+		int sccTop = 0;
+		int[] callStack = new int[n];
+		long[] position = new long[n];	// Decoding state of each node in the call stack
+		int[] previous = new int[n];
+		int[] remaining = new int[n];
+		int[] min = new int[n];
+
+		for (int i = 0; i < n; i++) {
+			if(visited[i]) {
+				continue;
+			}
+			int top = 0;
+			visited[i] = true;
+			low[i] = min[i] = step++;
+			it.reset(i);
+			position[i] = it.position();
+			previous[i] = it.previous();
+			remaining[i] = it.remaining();
+			sccStack[sccTop++] = i;
+			callStack[top++] = i;
+
+			while (top > 0) {
+				int cur = callStack[top - 1];
+				if (remaining[cur] > 0) {
+					it.restore(position[cur], previous[cur], remaining[cur]);
+					int next = it.next();
+					position[cur] = it.position();
+					previous[cur] = it.previous();
+					remaining[cur] = it.remaining();
+					if(!visited[next]) {
+						visited[next] = true;
+						low[next] = min[next] = step++;
+						it.reset(next);
+						position[next] = it.position();
+						previous[next] = it.previous();
+						remaining[next] = it.remaining();
+						sccStack[sccTop++] = next;
+						callStack[top++] = next;
+					} else {
+						min[cur] = Math.min(min[cur], low[next]);
+					}
+					continue;
+				}
+
+				top--;
+				if(min[cur] < low[cur]) {
+					low[cur] = min[cur];
+				} else {
+					int nodeSCC;
+					do {
+						nodeSCC = sccStack[--sccTop];
+						id[nodeSCC] = countSCC;
+						low[nodeSCC] = n;
+					} while (nodeSCC != cur);
+					countSCC++;
+				}
+				if (top > 0) {
+					int parent = callStack[top - 1];
+					min[parent] = Math.min(min[parent], low[cur]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Same as getSccDag() for a frozen graph after running tarjanSCC(GraphCSR) on it
+	 */
+	static GraphCSR getSccDag(GraphCSR graph) {
+		GraphCSR.Builder dag = new GraphCSR.Builder(countSCC);
+		for (int cur = 0; cur < graph.getNumVertices(); cur++) {
+			for (int arc = graph.offsets[cur]; arc < graph.offsets[cur + 1]; arc++) {
+				int next = graph.targets[arc];
+				if(id[cur] != id[next]) {
+					dag.addDirectedEdge(id[cur], id[next]);
+				}
+			}
+		}
+		return dag.build();
+	}
+
 	/**
 	 * Returns the Directed Acyclic Graph formed with the contracted Strongly Connected Components.
 	 * The returned graph doesn't have self-loops but might have parallel edges.
@@ -95,4 +257,21 @@ public class StronglyConnectedComponents {
 		return dag;
 	}
 
+	/**
+	 * Same as getSimplifiedSccDag() for a frozen graph after running tarjanSCC(GraphCSR) on it. The
+	 * edges are deduplicated with primitive int sets and the returned adjacency lists are sorted.
+	 */
+	static GraphCSR getSimplifiedSccDag(GraphCSR graph) {
+		GraphUniqueEdgeCompact dag = new GraphUniqueEdgeCompact(countSCC);
+		for (int cur = 0; cur < graph.getNumVertices(); cur++) {
+			for (int arc = graph.offsets[cur]; arc < graph.offsets[cur + 1]; arc++) {
+				int next = graph.targets[arc];
+				if(id[cur] != id[next]) {
+					dag.addDEdge(id[cur], id[next]);
+				}
+			}
+		}
+		return dag.finish();
+	}
+
 }
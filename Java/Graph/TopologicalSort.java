@@ -143,6 +143,82 @@ public class TopologicalSort {
 		return res;
 	}
 	
+	/**
+	 * Kahn's algorithm on a frozen graph. The stack of sources is kept in an int[] instead of an
+	 * ArrayDeque<Integer>.
+	 * @param graph Directed acyclic graph
+	 * @time O(|V| + |E|)
+	 */
+	public static int[] topSortKahn(GraphCSR graph) {
+		int[] offsets = graph.offsets;
+		int[] targets = graph.targets;
+		int[] S = new int[graph.getNumVertices()];
+		int top = 0;
+		int[] res = new int[graph.getNumVertices()];
+		int[] countIn = new int[graph.getNumVertices()];
+
+		for (int arc = 0; arc < targets.length; arc++) {
+			countIn[targets[arc]]++;
+		}
+
+		for (int i = 0; i < graph.getNumVertices(); i++) {
+			if(countIn[i] == 0)
+				S[top++] = i;
+		}
+
+		int index = 0;
+		while (top > 0) {
+			int node = S[--top];
+			res[index++] = node;
+
+			for (int arc = offsets[node]; arc < offsets[node + 1]; arc++) {
+				int next = targets[arc];
+				if(--countIn[next] == 0) {
+					S[top++] = next;
+				}
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Same as topSortKahn(GraphCSR) for a frozen weighted graph
+	 * @param graph Directed acyclic graph
+	 * @time O(|V| + |E|)
+	 */
+	public static int[] topSortKahn(GraphWeightedCSR graph) {
+		int[] offsets = graph.offsets;
+		int[] to = graph.to;
+		int[] S = new int[graph.getNumVertices()];
+		int top = 0;
+		int[] res = new int[graph.getNumVertices()];
+		int[] countIn = new int[graph.getNumVertices()];
+
+		for (int arc = 0; arc < to.length; arc++) {
+			countIn[to[arc]]++;
+		}
+
+		for (int i = 0; i < graph.getNumVertices(); i++) {
+			if(countIn[i] == 0)
+				S[top++] = i;
+		}
+
+		int index = 0;
+		while (top > 0) {
+			int node = S[--top];
+			res[index++] = node;
+
+			for (int arc = offsets[node]; arc < offsets[node + 1]; arc++) {
+				if(--countIn[to[arc]] == 0) {
+					S[top++] = to[arc];
+				}
+			}
+		}
+
+		return res;
+	}
+
 	/**
 	 * Kahn's algorithm to find the lowest lexicographic topological order of the Directed Acyclic
 	 * Graph (DAG) given as input. There exists a topological sort iff the graph is directed and 
@@ -182,6 +258,41 @@ public class TopologicalSort {
 		return res;
 	}
 	
+	/**
+	 * Same as lexTopSortKahn(Graph) for a frozen graph
+	 * @param graph Directed acyclic graph
+	 * @time O(|V| log |V| + |E|)
+	 */
+	static int[] lexTopSortKahn(GraphCSR graph) {
+		PriorityQueue<Integer> PQ = new PriorityQueue<Integer>();
+		int[] res = new int[graph.getNumVertices()];
+		int[] countIn = new int[graph.getNumVertices()];
+
+		for (int arc = 0; arc < graph.targets.length; arc++) {
+			countIn[graph.targets[arc]]++;
+		}
+
+		for (int i = 0; i < graph.getNumVertices(); i++) {
+			if(countIn[i] == 0)
+				PQ.add(i);
+		}
+
+		int index = 0;
+		while (!PQ.isEmpty()) {
+			int node = PQ.remove();
+			res[index++] = node;
+
+			for (int arc = graph.offsets[node]; arc < graph.offsets[node + 1]; arc++) {
+				int next = graph.targets[arc];
+				if(--countIn[next] == 0) {
+					PQ.add(next);
+				}
+			}
+		}
+
+		return res;
+	}
+
 	/**
 	 * Prints all the topological orders of the Directed Acyclic Graph (DAG) given as input
 	 * in lexicographical order.
@@ -0,0 +1,335 @@
+package Graph;
+
+import java.util.Arrays;
+
+/**
+ * Relabels the nodes of a frozen graph so that nodes visited together get close ids, which keeps
+ * the arrays indexed by node (distances, visited flags, offsets) in cache during traversals. Every
+ * ordering returns a {@link Permutation} to be passed to permute(), and the results computed on
+ * the permuted graph are mapped back to the original ids with it.
+ *
+ * @author Juan Martínez (https://www.linkedin.com/in/martinezgjuan)
+ */
+public class VertexOrdering {
+
+  /**
+   * Reverse Cuthill-McKee: BFS from a pseudo-peripheral node of each component visiting the
+   * neighbors in increasing degree order, reversed at the end. Reduces the bandwidth of the
+   * adjacency matrix. Meant for undirected (symmetric) graphs, on directed ones each search only
+   * follows the arcs and skips the nodes already placed by a previous one.
+   *
+   * @time O(|V| + |E| log |E|) plus a few BFS per component to find the starting nodes
+   */
+  static Permutation reverseCuthillMcKee(GraphCSR graph) {
+    int n = graph.getNumVertices();
+    int[] offsets = graph.offsets;
+    int[] targets = graph.targets;
+    int[] byDegree = sortByDegree(graph, true);
+    boolean[] visited = new boolean[n];
+    int[] order = new int[n];
+    int head = 0;
+    int tail = 0;
+    int[] neighbors = new int[n];
+    long[] keys = new long[n];
+    int[] levelQueue = new int[n];
+    int[] level = new int[n];
+
+    // Without symmetric arcs the search from initialNode may not reach byDegree[start], which then
+    // starts another one
+    int start = 0;
+    while (start < n) {
+      if (visited[byDegree[start]]) {
+        start++;
+        continue;
+      }
+      int initialNode = pseudoPeripheral(graph, byDegree[start], visited, levelQueue, level);
+      visited[initialNode] = true;
+      order[tail++] = initialNode;
+      while (head < tail) {
+        int node = order[head++];
+        int count = 0;
+        for (int arc = offsets[node]; arc < offsets[node + 1]; arc++) {
+          int next = targets[arc];
+          if (!visited[next]) {
+            visited[next] = true;
+            neighbors[count++] = next;
+          }
+        }
+        sortByDegree(graph, neighbors, count, keys);
+        System.arraycopy(neighbors, 0, order, tail, count);
+        tail += count;
+      }
+    }
+
+    int[] newId = new int[n];
+    for (int i = 0; i < n; i++) {
+      newId[order[i]] = n - 1 - i;
+    }
+    return new Permutation(newId);
+  }
+
+  /**
+   * George-Liu search of a pseudo-peripheral node (one of nearly maximum eccentricity) in the
+   * component of start: moves to the lowest degree node of the last BFS level while that
+   * increases the eccentricity. The searches never enter visited nodes, so the result is
+   * unvisited whenever start is, even if the arcs are not symmetric.
+   */
+  private static int pseudoPeripheral(GraphCSR graph, int start, boolean[] visited, int[] queue,
+      int[] level) {
+    int root = start;
+    int size = levels(graph, root, visited, queue, level);
+    while (true) {
+      int eccentricity = level[queue[size - 1]];
+      int candidate = queue[size - 1];
+      for (int i = size - 2; i >= 0 && level[queue[i]] == eccentricity; i--) {
+        if (graph.degree(queue[i]) < graph.degree(candidate)) {
+          candidate = queue[i];
+        }
+      }
+      size = levels(graph, candidate, visited, queue, level);
+      if (level[queue[size - 1]] <= eccentricity) {
+        return root;
+      }
+      root = candidate;
+    }
+  }
+
+  /**
+   * BFS from root over the unvisited nodes filling the queue with the nodes reached and level with
+   * the depth of each one. The visited flags are restored before returning.
+   *
+   * @return Number of nodes reached
+   */
+  private static int levels(GraphCSR graph, int root, boolean[] visited, int[] queue,
+      int[] level) {
+    int[] offsets = graph.offsets;
+    int[] targets = graph.targets;
+    int head = 0;
+    int tail = 0;
+    visited[root] = true;
+    level[root] = 0;
+    queue[tail++] = root;
+    while (head < tail) {
+      int node = queue[head++];
+      for (int arc = offsets[node]; arc < offsets[node + 1]; arc++) {
+        int next = targets[arc];
+        if (!visited[next]) {
+          visited[next] = true;
+          level[next] = level[node] + 1;
+          queue[tail++] = next;
+        }
+      }
+    }
+    for (int i = 0; i < tail; i++) {
+      visited[queue[i]] = false;
+    }
+    return tail;
+  }
+
+  /**
+   * Nodes sorted by decreasing out-degree, so the hubs share the first cache lines
+   *
+   * @time O(|V| log |V|)
+   */
+  static Permutation degreeOrder(GraphCSR graph) {
+    int[] order = sortByDegree(graph, false);
+    int[] newId = new int[order.length];
+    for (int i = 0; i < order.length; i++) {
+      newId[order[i]] = i;
+    }
+    return new Permutation(newId);
+  }
+
+  /**
+   * BFS order starting at the given node, followed by the remaining components in increasing order
+   * of their lowest node
+   *
+   * @time O(|V| + |E|)
+   */
+  static Permutation bfsOrder(GraphCSR graph, int source) {
+    int n = graph.getNumVertices();
+    int[] offsets = graph.offsets;
+    int[] targets = graph.targets;
+    int[] newId = new int[n];
+    Arrays.fill(newId, -1);
+    int[] queue = new int[n];
+    int head = 0;
+    int tail = 0;
+
+    for (int i = -1; i < n; i++) {
+      int initialNode = i == -1 ? source : i;
+      if (newId[initialNode] != -1) {
+        continue;
+      }
+      newId[initialNode] = tail;
+      queue[tail++] = initialNode;
+      while (head < tail) {
+        int node = queue[head++];
+        for (int arc = offsets[node]; arc < offsets[node + 1]; arc++) {
+          int next = targets[arc];
+          if (newId[next] == -1) {
+            newId[next] = tail;
+            queue[tail++] = next;
+          }
+        }
+      }
+    }
+    return new Permutation(newId);
+  }
+
+  /**
+   * Graph where node v is renamed to newId[v]. The adjacency lists are sorted by the new ids so
+   * the neighbors are also visited in memory order.
+   *
+   * @time O(|V| + |E| log |E|)
+   */
+  static GraphCSR permute(GraphCSR graph, Permutation permutation) {
+    int n = graph.getNumVertices();
+    int[] newId = permutation.newId;
+    int[] oldId = permutation.oldId;
+    int[] offsets = new int[n + 1];
+    for (int i = 0; i < n; i++) {
+      offsets[i + 1] = offsets[i] + graph.degree(oldId[i]);
+    }
+    int[] targets = new int[offsets[n]];
+    for (int i = 0; i < n; i++) {
+      int pos = offsets[i];
+      for (int arc = graph.offsets[oldId[i]]; arc < graph.offsets[oldId[i] + 1]; arc++) {
+        targets[pos++] = newId[graph.targets[arc]];
+      }
+      Arrays.sort(targets, offsets[i], offsets[i + 1]);
+    }
+    return new GraphCSR(n, graph.getNumEdges(), offsets, targets);
+  }
+
+  /**
+   * Weighted graph where node v is renamed to newId[v]. The arcs of each node are sorted by the
+   * new id of their target.
+   *
+   * @time O(|V| + |E| log |E|)
+   */
+  static GraphWeightedCSR permute(GraphWeightedCSR graph, Permutation permutation) {
+    int n = graph.getNumVertices();
+    int[] newId = permutation.newId;
+    int[] oldId = permutation.oldId;
+    int[] offsets = new int[n + 1];
+    for (int i = 0; i < n; i++) {
+      offsets[i + 1] = offsets[i] + graph.end(oldId[i]) - graph.start(oldId[i]);
+    }
+    int[] to = new int[offsets[n]];
+    int[] weight = new int[offsets[n]];
+    long[] arcs = new long[0];
+    for (int i = 0; i < n; i++) {
+      int degree = offsets[i + 1] - offsets[i];
+      if (arcs.length < degree) {
+        arcs = new long[Math.max(degree, 2 * arcs.length)];
+      }
+      int start = graph.offsets[oldId[i]];
+      for (int j = 0; j < degree; j++) { // Sort by new target id carrying the original arc index
+        arcs[j] = ((long) newId[graph.to[start + j]] << 32) | (start + j);
+      }
+      Arrays.sort(arcs, 0, degree);
+      for (int j = 0; j < degree; j++) {
+        int arc = (int) arcs[j];
+        to[offsets[i] + j] = (int) (arcs[j] >>> 32);
+        weight[offsets[i] + j] = graph.weight[arc];
+      }
+    }
+    return new GraphWeightedCSR(n, graph.getNumEdges(), offsets, to, weight);
+  }
+
+  /**
+   * Unweighted view sharing the arrays of the weighted graph, to compute an ordering for it
+   */
+  static GraphCSR structure(GraphWeightedCSR graph) {
+    return new GraphCSR(graph.getNumVertices(), graph.getNumEdges(), graph.offsets, graph.to);
+  }
+
+  /**
+   * Nodes sorted by out-degree with a counting sort, ties broken by id
+   */
+  private static int[] sortByDegree(GraphCSR graph, boolean increasing) {
+    int n = graph.getNumVertices();
+    int maxDegree = 0;
+    for (int node = 0; node < n; node++) {
+      maxDegree = Math.max(maxDegree, graph.degree(node));
+    }
+    int[] count = new int[maxDegree + 2];
+    for (int node = 0; node < n; node++) {
+      int key = increasing ? graph.degree(node) : maxDegree - graph.degree(node);
+      count[key + 1]++;
+    }
+    for (int i = 0; i <= maxDegree; i++) {
+      count[i + 1] += count[i];
+    }
+    int[] order = new int[n];
+    for (int node = 0; node < n; node++) {
+      int key = increasing ? graph.degree(node) : maxDegree - graph.degree(node);
+      order[count[key]++] = node;
+    }
+    return order;
+  }
+
+  /**
+   * Sorts the first count nodes of the array by increasing degree (ties broken by id)
+   */
+  private static void sortByDegree(GraphCSR graph, int[] nodes, int count, long[] keys) {
+    if (count < 2) {
+      return;
+    }
+    for (int i = 0; i < count; i++) {
+      keys[i] = ((long) graph.degree(nodes[i]) << 32) | nodes[i];
+    }
+    Arrays.sort(keys, 0, count);
+    for (int i = 0; i < count; i++) {
+      nodes[i] = (int) keys[i];
+    }
+  }
+
+  /**
+   * Node v of the original graph is node newId[v] of the permuted one, and node i of the permuted
+   * graph is node oldId[i] of the original one
+   */
+  static class Permutation {
+    final int[] newId;
+    final int[] oldId;
+
+    Permutation(int[] newId) {
+      this.newId = newId;
+      this.oldId = new int[newId.length];
+      Arrays.fill(oldId, -1);
+      for (int v = 0; v < newId.length; v++) {
+        if (oldId[newId[v]] != -1) {
+          throw new IllegalStateException("Not a permutation: nodes " + oldId[newId[v]] + " and "
+              + v + " both mapped to " + newId[v]);
+        }
+        oldId[newId[v]] = v;
+      }
+    }
+
+    /**
+     * Maps an array indexed by the nodes of the permuted graph (such as distTo) to the original ids
+     */
+    int[] toOriginal(int[] values) {
+      int[] res = new int[values.length];
+      for (int v = 0; v < newId.length; v++) {
+        res[v] = values[newId[v]];
+      }
+      return res;
+    }
+
+    /**
+     * Same as toOriginal() for arrays whose values are also nodes (such as nodeTo), negative
+     * values are kept as they are
+     */
+    int[] nodesToOriginal(int[] nodes) {
+      int[] res = new int[nodes.length];
+      for (int v = 0; v < newId.length; v++) {
+        int node = nodes[newId[v]];
+        res[v] = node < 0 ? node : oldId[node];
+      }
+      return res;
+    }
+  }
+
+}